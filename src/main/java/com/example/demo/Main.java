@@ -3,17 +3,11 @@ package com.example.demo;
 import com.example.demo.data.Account;
 import com.example.demo.data.AccountManager;
 import com.example.demo.data.DataManager;
-import com.example.demo.scene.GameScene;
+import com.example.demo.scene.BoardView;
+import com.example.demo.scene.ReplayScene;
 import com.example.demo.scene.HomeScreen;
+import com.example.demo.scene.SceneManager;
 import javafx.application.Application;
-import javafx.geometry.Insets;
-import javafx.scene.Group;
-import javafx.scene.Scene;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundFill;
-import javafx.scene.layout.CornerRadii;
 import javafx.stage.Stage;
 
 /**
@@ -23,11 +17,9 @@ import javafx.stage.Stage;
  * and transitions between the home screen and the game screen.
  */
 public class Main extends Application {
-    private static final int WIDTH = 1200;
-    private static final int HEIGHT = 700;
-
     private Account currentPlayer;
     private Stage primaryStage;
+    private SceneManager scenes;
 
     /**
      * JavaFX entry method.
@@ -38,6 +30,7 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
+        this.scenes = new SceneManager(primaryStage);
         
         // Configure window properties
         primaryStage.setTitle("2048 Game");
@@ -45,6 +38,16 @@ public class Main extends Application {
         primaryStage.setMinWidth(800);
         primaryStage.setMinHeight(600);
         primaryStage.initStyle(javafx.stage.StageStyle.UNDECORATED);
+
+        // --renderer=canvas draws the board into one canvas instead of a node per cell
+        String renderer = getParameters().getNamed().get("renderer");
+        if (renderer != null) {
+            try {
+                BoardView.setRenderer(BoardView.Renderer.valueOf(renderer.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown renderer: " + renderer + ". Using " + BoardView.getRenderer() + ".");
+            }
+        }
         
         // Load all accounts from persistent storage
         AccountManager.loadAllAccounts();
@@ -54,11 +57,15 @@ public class Main extends Application {
         
         // Set up shutdown hook to save data when application closes
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            DataManager.finishArchiving();
             AccountManager.saveAllAccounts();
             if (currentPlayer != null) {
                 DataManager.saveLastPlayer(currentPlayer);
             }
         }));
+
+        // Games interrupted last time are archived before this session records any
+        DataManager.archiveLeftoverReplays();
         
         showHomeScreen();
     }
@@ -69,76 +76,39 @@ public class Main extends Application {
      * The `HomeScreen` component allows the user to manage profiles and start a game.
      */
     private void showHomeScreen() {
-        final HomeScreen[] homeRef = new HomeScreen[1];
         if (currentPlayer == null) {
             currentPlayer = AccountManager.findOrCreateAccount("Guest");
         }
 
-        homeRef[0] = new HomeScreen(primaryStage, currentPlayer, () -> {
-            int boardSize = homeRef[0].getSelectedBoardSize();
-            startGame(homeRef[0].getCurrentPlayer(), boardSize);
-        });
-        homeRef[0].show();
-        currentPlayer = homeRef[0].getCurrentPlayer();
+        HomeScreen home = scenes.showHome(currentPlayer, () -> {
+            HomeScreen shown = scenes.getHome();
+            startGame(shown.getCurrentPlayer(), shown.getSelectedBoardSize());
+        }, () -> new ReplayScene(primaryStage, this::showHomeScreen).show());
+        currentPlayer = home.getCurrentPlayer();
         DataManager.saveLastPlayer(currentPlayer);
     }
 
     /**
      * Starts a new game session with the specified player account and board size.
-     * Initializes both the game scene and the endgame screen.
+     * The scenes of each board size are built once by the {@link SceneManager}
+     * and reset for every later game.
      *
      * @param player the player account to use for the session
      * @param boardSize the size of the game board (4, 5, or 6)
      */
     private void startGame(Account player, int boardSize) {
-        // Set the board size for the game
-        GameScene.setN(boardSize);
-        
-        // Adjust window dimensions based on board size
-        int gameWidth = WIDTH;
-        int gameHeight = HEIGHT;
-        
-        if (boardSize == 5) {
-            gameHeight = 750;
-        } else if (boardSize == 6) {
-            gameHeight = 800;
-        }
-        
-        Group gameRoot = new Group();
-        Group endgameRoot = new Group();
-
-        Scene gameScene = new Scene(gameRoot, gameWidth, gameHeight, Color.rgb(250, 248, 239));
-        Scene endGameScene = new Scene(endgameRoot, gameWidth, gameHeight, Color.rgb(250, 20, 100, 0.2));
-
-        // Optional UI decoration (menu background)
-        Rectangle backgroundOfMenu = new Rectangle(240, 120, Color.rgb(200, 200, 220, 0.3));
-        backgroundOfMenu.setX(gameWidth / 2 - 120);
-        backgroundOfMenu.setY(180);
-        gameRoot.getChildren().add(backgroundOfMenu);
-
-        BackgroundFill background_fill = new BackgroundFill(Color.rgb(240, 240, 250), CornerRadii.EMPTY, Insets.EMPTY);
-        Background background = new Background(background_fill);
-
-        GameScene game = new GameScene();
-        game.game(
-                gameScene,
-                gameRoot,
-                primaryStage,
-                endGameScene,
-                endgameRoot,
-                currentPlayer,
+        currentPlayer = player;
+        scenes.showGame(player, boardSize,
                 () -> startGame(currentPlayer, boardSize), // Restart handler
                 this::showHomeScreen            // Back to home handler
         );
-
-        primaryStage.setScene(gameScene);
-        primaryStage.show();
     }
 
     /**
      * Launches the JavaFX application.
      *
-     * @param args command-line arguments
+     * @param args command-line arguments; {@code --renderer=canvas} or
+     *             {@code --renderer=nodes} chooses how the board is drawn
      */
     public static void main(String[] args) {
         launch(args);
@@ -0,0 +1,98 @@
+package com.example.demo;
+
+import com.example.demo.ai.BoardEvaluator;
+import com.example.demo.ai.Heuristic;
+import com.example.demo.ai.MovePolicies;
+import com.example.demo.ai.MovePolicy;
+import com.example.demo.ai.NTupleNetwork;
+import com.example.demo.engine.PackedBoard;
+import com.example.demo.sim.BatchSimulator;
+import com.example.demo.sim.SimulationReport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+/**
+ * Command-line entry point that plays batches of games without a JavaFX stage.
+ * <p>
+ * Used to tune spawn rules and move policies offline. Options:
+ * <pre>
+ *   --games N       number of games (default 1000)
+ *   --size N        board size 4-6 (default 4)
+ *   --policy NAME   random, greedy, expectimax, learned or montecarlo (default random)
+ *   --threads N     worker threads (default: available processors)
+ *   --seed N        random seed (default: current time)
+ *   --depth N       expectimax maximum depth (default 3)
+ *   --budget MS     expectimax or Monte Carlo time budget per move (default 10)
+ *   --weights PATH  n-tuple weights used by expectimax and learned (default: heuristic)
+ * </pre>
+ */
+public class Simulator {
+
+    private static final long TABLE_BYTES = 16L << 20;
+
+    /**
+     * Runs a batch of games and prints the statistics report.
+     *
+     * @param args command-line options as listed in the class description
+     */
+    public static void main(String[] args) {
+        int games = 1000;
+        int size = 4;
+        String policy = "random";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        int depth = 3;
+        long budget = 10;
+        Path weights = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--games" -> games = Integer.parseInt(value);
+                    case "--size" -> size = Integer.parseInt(value);
+                    case "--policy" -> policy = value;
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--depth" -> depth = Integer.parseInt(value);
+                    case "--budget" -> budget = Long.parseLong(value);
+                    case "--weights" -> weights = Paths.get(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+            if (size < PackedBoard.MIN_SIZE || size > PackedBoard.MAX_SIZE) {
+                throw new IllegalArgumentException("Board size must be 4-6: " + size);
+            }
+            if (games < 1 || threads < 1 || depth < 1) {
+                throw new IllegalArgumentException("games, threads and depth must be positive");
+            }
+
+            BoardEvaluator evaluator = Heuristic.evaluator();
+            if (weights != null) {
+                NTupleNetwork network = NTupleNetwork.open(weights);
+                if (network.size() != size) {
+                    throw new IllegalArgumentException("Weights are for " + network.size() + "x" + network.size());
+                }
+                evaluator = network;
+            }
+            Supplier<MovePolicy> policies = MovePolicies.named(policy, size, depth, budget, TABLE_BYTES, evaluator);
+            System.out.printf("Playing %d games of %dx%d with the %s policy on %d threads (seed %d)%n",
+                    games, size, size, policy, threads, seed);
+            SimulationReport report = new BatchSimulator(size, threads, policies).run(games, seed);
+            report.print(System.out);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Cannot open weights: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
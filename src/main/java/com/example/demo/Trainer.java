@@ -0,0 +1,92 @@
+package com.example.demo;
+
+import com.example.demo.ai.NTupleNetwork;
+import com.example.demo.ai.TDTrainer;
+import com.example.demo.data.DataManager;
+import com.example.demo.engine.PackedBoard;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line entry point that trains the n-tuple network used by hints and
+ * auto play.
+ * <p>
+ * Weights are memory-mapped, so training continues from the existing file and
+ * every update is kept. Options:
+ * <pre>
+ *   --games N       number of self-play games (default 100000)
+ *   --size N        board size 4-6 (default 4)
+ *   --threads N     worker threads (default: available processors)
+ *   --rate X        learning rate (default 0.1)
+ *   --seed N        random seed (default: current time)
+ *   --weights PATH  weights file (default: ntuple-NxN.weights in the game data directory)
+ * </pre>
+ */
+public class Trainer {
+
+    private static final long REPORT_MILLIS = 10_000;
+
+    /**
+     * Trains the network and writes the weights to disk.
+     *
+     * @param args command-line options as listed in the class description
+     */
+    public static void main(String[] args) {
+        int games = 100_000;
+        int size = 4;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double rate = 0.1;
+        long seed = System.nanoTime();
+        Path weights = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--games" -> games = Integer.parseInt(value);
+                    case "--size" -> size = Integer.parseInt(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--rate" -> rate = Double.parseDouble(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--weights" -> weights = Paths.get(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+            if (size < PackedBoard.MIN_SIZE || size > PackedBoard.MAX_SIZE) {
+                throw new IllegalArgumentException("Board size must be 4-6: " + size);
+            }
+            if (games < 1 || threads < 1 || rate <= 0) {
+                throw new IllegalArgumentException("games, threads and rate must be positive");
+            }
+            if (weights == null) {
+                weights = DataManager.getWeightsFile(size);
+            }
+
+            NTupleNetwork network = NTupleNetwork.create(weights, size);
+            System.out.printf("Training %s (%d MB) on %d games of %dx%d with %d threads%n",
+                    weights, network.weightBytes() >> 20, games, size, size, threads);
+            new TDTrainer(network, rate).train(games, threads, seed, REPORT_MILLIS,
+                    (done, meanScore, winRate, movesPerSecond) -> System.out.printf(
+                            "%d games: mean score %.0f, 2048 rate %.1f%%, %.0f moves/s%n",
+                            done, meanScore, 100 * winRate, movesPerSecond));
+            network.flush();
+            System.out.println("Saved " + weights);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Cannot open weights: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Training interrupted");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo;
+
+import com.example.demo.data.DataManager;
+import com.example.demo.replay.BatchVerifier;
+import com.example.demo.replay.ReplayArchive;
+import com.example.demo.replay.ReplayVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Command-line entry point that re-simulates recorded games to check them.
+ * <p>
+ * By default every game in the replay archive is verified against the score
+ * in its index. Options:
+ * <pre>
+ *   --dir PATH      verify the .replay files in a directory instead
+ *   --threads N     worker threads (default: available processors)
+ * </pre>
+ */
+public class Verifier {
+
+    /** Number of rejected replays listed in the output */
+    private static final int MAX_LISTED = 20;
+
+    /**
+     * Verifies a batch of replays and prints how many passed.
+     *
+     * @param args command-line options as listed in the class description
+     */
+    public static void main(String[] args) {
+        Path dir = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--dir" -> dir = Paths.get(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be positive");
+            }
+
+            BatchVerifier verifier = new BatchVerifier(threads);
+            List<String> names;
+            ReplayVerifier.Verdict[] verdicts;
+            if (dir != null) {
+                List<Path> files;
+                try (Stream<Path> listing = Files.list(dir)) {
+                    files = listing.filter(file -> file.getFileName().toString().endsWith(".replay"))
+                            .sorted().toList();
+                }
+                names = files.stream().map(file -> file.getFileName().toString()).toList();
+                System.out.printf("Verifying %d replays in %s on %d threads%n", files.size(), dir, threads);
+                verdicts = verifier.verifyFiles(files);
+            } else {
+                DataManager.archiveLeftoverReplays().join();
+                ReplayArchive archive = DataManager.getReplayArchive();
+                names = new ArrayList<>();
+                for (int i = 0; i < archive.size(); i++) {
+                    names.add("#" + i + " " + archive.entry(i));
+                }
+                System.out.printf("Verifying %d archived games on %d threads%n", archive.size(), threads);
+                verdicts = verifier.verifyArchive(archive);
+            }
+
+            int valid = 0;
+            long moves = 0;
+            int listed = 0;
+            for (int i = 0; i < verdicts.length; i++) {
+                moves += verdicts[i].getMoves();
+                if (verdicts[i].isValid()) {
+                    valid++;
+                } else if (listed++ < MAX_LISTED) {
+                    System.out.println("  " + names.get(i) + ": " + verdicts[i].getReason());
+                }
+            }
+            double seconds = verifier.getElapsedNanos() / 1e9;
+            System.out.printf("%d valid, %d rejected in %.3f s (%.0f replays/s, %.0f moves/s)%n",
+                    valid, verdicts.length - valid, seconds, verdicts.length / seconds, moves / seconds);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Cannot read replays: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
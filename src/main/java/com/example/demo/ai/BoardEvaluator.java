@@ -0,0 +1,34 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.PackedBoard;
+
+/**
+ * Static evaluation of a board, used at the leaves of a search and by
+ * one-ply policies.
+ * <p>
+ * Evaluators are called with the board after a move and before the new tile
+ * spawns. They must not modify the board and must be safe to call from
+ * several threads at once.
+ */
+@FunctionalInterface
+public interface BoardEvaluator {
+
+    /**
+     * Evaluates a board.
+     *
+     * @param board the board to score; must not be modified
+     * @return the value of the board; higher is better
+     */
+    double evaluate(PackedBoard board);
+
+    /**
+     * Tells whether values are estimates of the score still to be gained, in
+     * which case a search adds the score of each move to them.
+     *
+     * @return {@code true} for learned value functions, {@code false} for
+     *         handcrafted heuristics
+     */
+    default boolean countsScore() {
+        return false;
+    }
+}
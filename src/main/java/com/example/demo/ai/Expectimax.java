@@ -0,0 +1,238 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.Game;
+import com.example.demo.engine.PackedBoard;
+
+/**
+ * Depth-limited expectimax search over the headless game rules.
+ * <p>
+ * Player nodes take the best of the four moves; chance nodes average over
+ * every empty cell receiving a 2 or a 4. Leaves are scored with a
+ * {@link BoardEvaluator}, by default {@link Heuristic}; for evaluators that
+ * estimate the score still to come, the score of each move is added. The
+ * search deepens iteratively until the maximum depth or the time budget is
+ * reached and returns the move of the deepest completed iteration. Chance
+ * branches whose probability falls below {@value #PROBABILITY_CUTOFF} are
+ * evaluated statically.
+ * <p>
+ * When a {@link TranspositionTable} is supplied, player nodes are cached under
+ * their canonical {@link Zobrist} key, so positions reached again, including
+ * rotated or mirrored ones, are not searched twice. The eight symmetric hashes
+ * of a chance node are computed once and each spawn outcome only updates them.
+ * <p>
+ * An instance keeps its scratch boards and hashes per ply and allocates
+ * nothing while searching, with either evaluator: {@link NTupleNetwork}
+ * unpacks boards into a scratch array per thread.
+ * It is not thread-safe; use one instance per thread. The running search
+ * stops as soon as its thread is interrupted.
+ */
+public class Expectimax {
+
+    /** Default number of player moves to look ahead */
+    public static final int DEFAULT_MAX_DEPTH = 6;
+
+    private static final double PROBABILITY_CUTOFF = 0.0001;
+    private static final double TWO_PROBABILITY = 1.0 - Game.FOUR_PROBABILITY;
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final int maxDepth;
+    private final TranspositionTable table;
+    private final BoardEvaluator evaluator;
+    private final boolean countsScore;
+    private final PackedBoard[] scratch;
+    private final long[][] hashes;
+    private long deadline;
+    private int untilCheck;
+    private int completedDepth;
+
+    /**
+     * Thrown internally to unwind the search when the budget is exhausted.
+     */
+    private static final class SearchAborted extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SearchAborted() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final SearchAborted ABORTED = new SearchAborted();
+
+    /**
+     * Creates a search for one board size without a transposition table.
+     *
+     * @param size     number of rows and columns of the boards to search
+     * @param maxDepth maximum number of player moves to look ahead
+     */
+    public Expectimax(int size, int maxDepth) {
+        this(size, maxDepth, null);
+    }
+
+    /**
+     * Creates a search for one board size.
+     *
+     * @param size     number of rows and columns of the boards to search
+     * @param maxDepth maximum number of player moves to look ahead
+     * @param table    cache for player node values, or {@code null} for none;
+     *                 must only be used by this search
+     */
+    public Expectimax(int size, int maxDepth, TranspositionTable table) {
+        this(size, maxDepth, table, Heuristic.evaluator());
+    }
+
+    /**
+     * Creates a search for one board size with a custom leaf evaluation.
+     *
+     * @param size      number of rows and columns of the boards to search
+     * @param maxDepth  maximum number of player moves to look ahead
+     * @param table     cache for player node values, or {@code null} for none;
+     *                  must only be used by this search
+     * @param evaluator scores the boards at the leaves of the search
+     */
+    public Expectimax(int size, int maxDepth, TranspositionTable table, BoardEvaluator evaluator) {
+        this.maxDepth = maxDepth;
+        this.table = table;
+        this.evaluator = evaluator;
+        this.countsScore = evaluator.countsScore();
+        this.scratch = new PackedBoard[maxDepth + 1];
+        this.hashes = new long[maxDepth + 1][Zobrist.SYMMETRIES];
+        for (int i = 0; i < scratch.length; i++) {
+            scratch[i] = new PackedBoard(size);
+        }
+    }
+
+    /**
+     * Finds the best move for a board within a time budget.
+     *
+     * @param board        the position to analyse; not modified
+     * @param budgetMillis wall-clock time budget in milliseconds
+     * @return the best move found, or {@code null} if no move is legal or the
+     *         search was stopped before the first iteration finished
+     */
+    public Direction bestMove(PackedBoard board, long budgetMillis) {
+        deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        untilCheck = CHECK_INTERVAL;
+        completedDepth = 0;
+
+        Direction best = null;
+        try {
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                best = searchRoot(board, depth);
+                completedDepth = depth;
+                if (best == null) break;
+            }
+        } catch (SearchAborted e) {
+            // Keep the result of the deepest finished iteration
+        }
+        return best;
+    }
+
+    /**
+     * @return depth of the last fully completed iteration of {@link #bestMove}
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * @return the transposition table used by this search, or {@code null}
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    private Direction searchRoot(PackedBoard board, int depth) {
+        PackedBoard child = scratch[depth];
+        Direction best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Direction direction : Direction.values()) {
+            child.copyFrom(board);
+            int gained = child.move(direction);
+            if (gained < 0) continue;
+            double value = reward(gained) + chanceNode(child, depth - 1, 1.0);
+            if (value > bestValue) {
+                bestValue = value;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    private double maxNode(PackedBoard board, int depth, double probability, long key) {
+        if (table != null) {
+            double cached = table.get(key, depth);
+            if (!Double.isNaN(cached)) return cached;
+        }
+
+        PackedBoard child = scratch[depth];
+        double best = Double.NEGATIVE_INFINITY;
+        for (Direction direction : Direction.values()) {
+            child.copyFrom(board);
+            int gained = child.move(direction);
+            if (gained < 0) continue;
+            best = Math.max(best, reward(gained) + chanceNode(child, depth - 1, probability));
+        }
+        if (best == Double.NEGATIVE_INFINITY) {
+            // No legal move: the game is lost here
+            best = 0;
+        }
+
+        if (table != null) table.put(key, depth, best);
+        return best;
+    }
+
+    private double chanceNode(PackedBoard board, int depth, double probability) {
+        checkBudget();
+        if (depth == 0 || probability < PROBABILITY_CUTOFF) {
+            return evaluator.evaluate(board);
+        }
+
+        long[] symmetric = hashes[depth];
+        if (table != null) Zobrist.hashAll(board, symmetric);
+
+        long emptyCells = board.emptyMask();
+        int empty = Long.bitCount(emptyCells);
+        double twoProbability = probability * TWO_PROBABILITY / empty;
+        double fourProbability = probability * Game.FOUR_PROBABILITY / empty;
+        double total = 0;
+        int n = board.size();
+        for (long cells = emptyCells; cells != 0; cells &= cells - 1) {
+            int cell = Long.numberOfTrailingZeros(cells);
+            int row = cell / n;
+            int col = cell % n;
+            total += TWO_PROBABILITY * spawnOutcome(board, depth, twoProbability, symmetric, row, col, 1);
+            total += Game.FOUR_PROBABILITY * spawnOutcome(board, depth, fourProbability, symmetric, row, col, 2);
+            board.set(row, col, 0);
+        }
+        return total / empty;
+    }
+
+    /**
+     * Places one spawned tile and searches the resulting player node.
+     * The tile's key is XORed into the chance node's hashes and back out.
+     */
+    private double spawnOutcome(PackedBoard board, int depth, double probability, long[] symmetric,
+                                int row, int col, int exponent) {
+        board.set(row, col, exponent);
+        if (table == null) return maxNode(board, depth, probability, 0);
+
+        int n = board.size();
+        Zobrist.place(symmetric, n, row, col, exponent);
+        long key = Zobrist.canonical(symmetric);
+        Zobrist.place(symmetric, n, row, col, exponent);
+        return maxNode(board, depth, probability, key);
+    }
+
+    private double reward(int gained) {
+        return countsScore ? gained : 0;
+    }
+
+    private void checkBudget() {
+        if (--untilCheck > 0) return;
+        untilCheck = CHECK_INTERVAL;
+        if (System.nanoTime() > deadline || Thread.currentThread().isInterrupted()) {
+            throw ABORTED;
+        }
+    }
+}
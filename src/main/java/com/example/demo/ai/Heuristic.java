@@ -0,0 +1,131 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.Bitboard;
+import com.example.demo.engine.PackedBoard;
+
+/**
+ * Static board evaluation used by the search-based players.
+ * <p>
+ * Every row and column is scored on its own and the results are summed. A line
+ * scores well when it has empty cells, neighbouring tiles that can merge and
+ * tiles ordered monotonically, and badly when it holds many large tiles.
+ * Scores for all 4-cell lines are precomputed, so a 4x4 board is evaluated with
+ * eight table lookups.
+ */
+public final class Heuristic {
+
+    private static final double LOST_PENALTY = 200000.0;
+    private static final double EMPTY_WEIGHT = 270.0;
+    private static final double MERGE_WEIGHT = 700.0;
+    private static final double MONOTONICITY_POWER = 4.0;
+    private static final double MONOTONICITY_WEIGHT = 47.0;
+    private static final double SUM_POWER = 3.5;
+    private static final double SUM_WEIGHT = 11.0;
+
+    private static final double[] SUM_TERM = new double[16];
+    private static final double[] MONOTONICITY_TERM = new double[16];
+    private static final float[] LINE_SCORE = new float[1 << 16];
+
+    private static final BoardEvaluator EVALUATOR = Heuristic::evaluate;
+
+    static {
+        for (int rank = 0; rank < 16; rank++) {
+            SUM_TERM[rank] = Math.pow(rank, SUM_POWER);
+            MONOTONICITY_TERM[rank] = Math.pow(rank, MONOTONICITY_POWER);
+        }
+        for (int line = 0; line < LINE_SCORE.length; line++) {
+            LINE_SCORE[line] = (float) scoreLine(line, Bitboard.SIZE);
+        }
+    }
+
+    private Heuristic() {
+        // Utility class
+    }
+
+    /**
+     * Returns the heuristic as a {@link BoardEvaluator}.
+     *
+     * @return an evaluator calling {@link #evaluate(PackedBoard)}
+     */
+    public static BoardEvaluator evaluator() {
+        return EVALUATOR;
+    }
+
+    /**
+     * Evaluates a board of any supported size.
+     *
+     * @param board the board to score
+     * @return the heuristic value; higher is better
+     */
+    public static double evaluate(PackedBoard board) {
+        int n = board.size();
+        if (n == Bitboard.SIZE) return evaluate(board.word(0));
+
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += scoreLine(board.row(i), n) + scoreLine(board.column(i), n);
+        }
+        return total;
+    }
+
+    /**
+     * Evaluates a packed 4x4 board.
+     *
+     * @param board the packed board
+     * @return the heuristic value; higher is better
+     */
+    public static double evaluate(long board) {
+        long columns = Bitboard.transpose(board);
+        double total = 0;
+        for (int i = 0; i < Bitboard.SIZE; i++) {
+            total += LINE_SCORE[Bitboard.row(board, i)] + LINE_SCORE[Bitboard.row(columns, i)];
+        }
+        return total;
+    }
+
+    /**
+     * Scores one packed row or column.
+     *
+     * @param line  the packed line (4 bits per cell)
+     * @param cells number of cells in the line
+     * @return the line score
+     */
+    static double scoreLine(int line, int cells) {
+        double sum = 0;
+        int empty = 0;
+        int merges = 0;
+        int previous = 0;
+        int counter = 0;
+        double monotonicityLeft = 0;
+        double monotonicityRight = 0;
+
+        for (int i = 0; i < cells; i++) {
+            int rank = (line >>> (4 * i)) & 0xF;
+            sum += SUM_TERM[rank];
+            if (rank == 0) {
+                empty++;
+            } else {
+                if (previous == rank) {
+                    counter++;
+                } else if (counter > 0) {
+                    merges += 1 + counter;
+                    counter = 0;
+                }
+                previous = rank;
+            }
+            if (i > 0) {
+                int before = (line >>> (4 * (i - 1))) & 0xF;
+                if (before > rank) {
+                    monotonicityLeft += MONOTONICITY_TERM[before] - MONOTONICITY_TERM[rank];
+                } else {
+                    monotonicityRight += MONOTONICITY_TERM[rank] - MONOTONICITY_TERM[before];
+                }
+            }
+        }
+        if (counter > 0) merges += 1 + counter;
+
+        return LOST_PENALTY + EMPTY_WEIGHT * empty + MERGE_WEIGHT * merges
+                - MONOTONICITY_WEIGHT * Math.min(monotonicityLeft, monotonicityRight)
+                - SUM_WEIGHT * sum;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.Game;
+import com.example.demo.engine.PackedBoard;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Chooses moves by Monte Carlo rollouts.
+ * <p>
+ * Every legal move is tried from the current board and followed by random
+ * play until the game ends; the move with the best mean final score wins.
+ * Rollouts are split into independent {@link RecursiveTask}s on a
+ * {@link ForkJoinPool}, each with its own game and a split random generator,
+ * so throughput grows with the number of cores and nothing is shared until
+ * the per-move totals are added up. The search stops after a fixed number of
+ * rollouts per legal move or at a wall-clock deadline, whichever comes first.
+ * <p>
+ * Unlike {@link Expectimax}, the cost of a decision does not grow with the
+ * number of empty cells, which makes it usable on 6x6 boards. An instance
+ * makes one decision at a time.
+ */
+public class MonteCarlo {
+
+    /** Default number of rollouts per legal move */
+    public static final int DEFAULT_ROLLOUTS = 1000;
+
+    /** Largest number of rollouts a task runs without splitting further */
+    private static final int ROLLOUTS_PER_TASK = 64;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final ForkJoinPool pool;
+    private final int rollouts;
+    private long lastRollouts;
+
+    /**
+     * Creates a selector that runs on the common pool.
+     *
+     * @param rollouts number of rollouts per legal move
+     */
+    public MonteCarlo(int rollouts) {
+        this(ForkJoinPool.commonPool(), rollouts);
+    }
+
+    /**
+     * Creates a selector.
+     *
+     * @param pool     pool the rollouts run on
+     * @param rollouts number of rollouts per legal move
+     */
+    public MonteCarlo(ForkJoinPool pool, int rollouts) {
+        this.pool = pool;
+        this.rollouts = rollouts;
+    }
+
+    /**
+     * Finds the move with the best mean rollout score.
+     *
+     * @param board        the position to analyse; not modified
+     * @param budgetMillis wall-clock deadline in milliseconds
+     * @param random       generator the rollout generators are split from
+     * @return the best move, or {@code null} if no move is legal
+     */
+    public Direction bestMove(PackedBoard board, long budgetMillis, SplittableRandom random) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+
+        int legal = 0;
+        Direction[] moves = new Direction[DIRECTIONS.length];
+        PackedBoard[] afterstates = new PackedBoard[DIRECTIONS.length];
+        int[] gains = new int[DIRECTIONS.length];
+        for (Direction direction : DIRECTIONS) {
+            PackedBoard after = new PackedBoard(board);
+            int gained = after.move(direction);
+            if (gained < 0) continue;
+            moves[legal] = direction;
+            afterstates[legal] = after;
+            gains[legal] = gained;
+            legal++;
+        }
+        lastRollouts = 0;
+        if (legal <= 1) return legal == 0 ? null : moves[0];
+
+        RolloutTask root = new RolloutTask(afterstates, gains, legal, 0, Math.max(rollouts, 1) * legal,
+                random.split(), deadline);
+        Totals totals = pool.invoke(root);
+        lastRollouts = totals.total();
+
+        Direction best = null;
+        double bestMean = Double.NEGATIVE_INFINITY;
+        for (int m = 0; m < legal; m++) {
+            if (totals.counts[m] == 0) continue;
+            double mean = (double) totals.scores[m] / totals.counts[m];
+            if (mean > bestMean) {
+                bestMean = mean;
+                best = moves[m];
+            }
+        }
+        // The deadline may pass before any rollout finishes
+        return best != null ? best : moves[0];
+    }
+
+    /**
+     * @return number of rollouts completed by the last call to {@link #bestMove}
+     */
+    public long getLastRollouts() {
+        return lastRollouts;
+    }
+
+    /**
+     * Sums of rollout scores and rollout counts per candidate move.
+     */
+    private static final class Totals {
+        private final long[] scores;
+        private final long[] counts;
+
+        Totals(int moves) {
+            this.scores = new long[moves];
+            this.counts = new long[moves];
+        }
+
+        Totals add(Totals other) {
+            for (int m = 0; m < scores.length; m++) {
+                scores[m] += other.scores[m];
+                counts[m] += other.counts[m];
+            }
+            return this;
+        }
+
+        long total() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    private static final class RolloutTask extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final PackedBoard[] afterstates;
+        private final int[] gains;
+        private final int moves;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+        private final long deadline;
+
+        RolloutTask(PackedBoard[] afterstates, int[] gains, int moves, int from, int to,
+                    SplittableRandom random, long deadline) {
+            this.afterstates = afterstates;
+            this.gains = gains;
+            this.moves = moves;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= ROLLOUTS_PER_TASK) {
+                return rollAll();
+            }
+            int mid = (from + to) >>> 1;
+            RolloutTask upper = new RolloutTask(afterstates, gains, moves, mid, to, random.split(), deadline);
+            upper.fork();
+            Totals totals = new RolloutTask(afterstates, gains, moves, from, mid, random, deadline).compute();
+            return totals.add(upper.join());
+        }
+
+        private Totals rollAll() {
+            Totals totals = new Totals(moves);
+            Game game = new Game(afterstates[0].size(), random.nextLong());
+            for (int i = from; i < to; i++) {
+                if (System.nanoTime() > deadline) break;
+                // Consecutive rollouts cycle through the moves, so each gets an equal share
+                int m = i % moves;
+                game.restore(afterstates[m], gains[m]);
+                game.spawnTile();
+                playRandomly(game);
+                totals.scores[m] += game.getScore();
+                totals.counts[m]++;
+            }
+            return totals;
+        }
+
+        private void playRandomly(Game game) {
+            while (true) {
+                int first = random.nextInt(DIRECTIONS.length);
+                boolean moved = false;
+                for (int k = 0; k < DIRECTIONS.length && !moved; k++) {
+                    moved = game.move(DIRECTIONS[(first + k) % DIRECTIONS.length]);
+                }
+                if (!moved) return;
+            }
+        }
+    }
+}
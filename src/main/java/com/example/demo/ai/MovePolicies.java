@@ -0,0 +1,198 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.PackedBoard;
+
+import java.util.function.Supplier;
+
+/**
+ * Factory methods for the built-in {@link MovePolicy} implementations.
+ */
+public final class MovePolicies {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private MovePolicies() {
+        // Utility class
+    }
+
+    /**
+     * Returns a policy that plays a uniformly chosen legal move.
+     *
+     * @return the random policy
+     */
+    public static MovePolicy random() {
+        PackedBoard[] scratch = new PackedBoard[1];
+        return (board, random) -> {
+            PackedBoard child = scratchFor(scratch, board);
+            int legal = 0;
+            Direction chosen = null;
+            for (Direction direction : DIRECTIONS) {
+                child.copyFrom(board);
+                if (child.move(direction) < 0) continue;
+                // Reservoir sampling keeps each legal move with equal probability
+                if (random.nextInt(++legal) == 0) chosen = direction;
+            }
+            return chosen;
+        };
+    }
+
+    /**
+     * Returns a policy that plays the move gaining the most score, breaking
+     * ties by the number of empty cells left.
+     *
+     * @return the greedy policy
+     */
+    public static MovePolicy greedy() {
+        PackedBoard[] scratch = new PackedBoard[1];
+        return (board, random) -> {
+            PackedBoard child = scratchFor(scratch, board);
+            Direction best = null;
+            long bestValue = -1;
+            for (Direction direction : DIRECTIONS) {
+                child.copyFrom(board);
+                int gained = child.move(direction);
+                if (gained < 0) continue;
+                long value = ((long) gained << 8) | child.countEmpty();
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = direction;
+                }
+            }
+            return best;
+        };
+    }
+
+    /**
+     * Returns a policy that runs a time-limited {@link Expectimax} search with
+     * its own transposition table. If the search finds nothing in time, the
+     * greedy move is played.
+     *
+     * @param size         board size the policy is used for
+     * @param maxDepth     maximum search depth
+     * @param budgetMillis time budget per move in milliseconds
+     * @param tableBytes   memory for the transposition table, or 0 for none
+     * @return the search policy
+     */
+    public static MovePolicy expectimax(int size, int maxDepth, long budgetMillis, long tableBytes) {
+        return expectimax(size, maxDepth, budgetMillis, tableBytes, Heuristic.evaluator());
+    }
+
+    /**
+     * Returns a policy that runs a time-limited {@link Expectimax} search with
+     * the given leaf evaluation.
+     *
+     * @param size         board size the policy is used for
+     * @param maxDepth     maximum search depth
+     * @param budgetMillis time budget per move in milliseconds
+     * @param tableBytes   memory for the transposition table, or 0 for none
+     * @param evaluator    scores the leaves of the search
+     * @return the search policy
+     */
+    public static MovePolicy expectimax(int size, int maxDepth, long budgetMillis, long tableBytes,
+                                        BoardEvaluator evaluator) {
+        TranspositionTable table = tableBytes > 0 ? TranspositionTable.withMemory(tableBytes) : null;
+        Expectimax search = new Expectimax(size, maxDepth, table, evaluator);
+        MovePolicy fallback = greedy();
+        return (board, random) -> {
+            Direction best = search.bestMove(board, budgetMillis);
+            return best != null ? best : fallback.choose(board, random);
+        };
+    }
+
+    /**
+     * Returns a policy that picks the move with the best mean score over
+     * random rollouts, run in parallel on the common pool.
+     *
+     * @param rollouts     number of rollouts per legal move
+     * @param budgetMillis deadline per move decision in milliseconds
+     * @return the Monte Carlo policy
+     */
+    public static MovePolicy monteCarlo(int rollouts, long budgetMillis) {
+        MonteCarlo selector = new MonteCarlo(rollouts);
+        return (board, random) -> selector.bestMove(board, budgetMillis, random);
+    }
+
+    /**
+     * Returns a policy that plays the move with the highest score plus
+     * evaluation of the board after it, without looking further ahead. This
+     * is how a learned {@link NTupleNetwork} plays.
+     *
+     * @param evaluator scores the board after each move
+     * @return the one-ply policy
+     */
+    public static MovePolicy afterstate(BoardEvaluator evaluator) {
+        PackedBoard[] scratch = new PackedBoard[1];
+        return (board, random) -> {
+            PackedBoard child = scratchFor(scratch, board);
+            Direction best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Direction direction : DIRECTIONS) {
+                child.copyFrom(board);
+                int gained = child.move(direction);
+                if (gained < 0) continue;
+                double value = (evaluator.countsScore() ? gained : 0) + evaluator.evaluate(child);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = direction;
+                }
+            }
+            return best;
+        };
+    }
+
+    /**
+     * Returns a factory for a policy by name, for command-line and settings use.
+     * Search policies use the {@link Heuristic}.
+     *
+     * @param name         {@code random}, {@code greedy} or {@code expectimax}
+     * @param size         board size
+     * @param maxDepth     maximum search depth of the expectimax policy
+     * @param budgetMillis time budget per move of the expectimax policy
+     * @param tableBytes   transposition table memory of the expectimax policy
+     * @return a supplier creating a fresh policy instance on each call
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static Supplier<MovePolicy> named(String name, int size, int maxDepth, long budgetMillis, long tableBytes) {
+        return named(name, size, maxDepth, budgetMillis, tableBytes, Heuristic.evaluator());
+    }
+
+    /**
+     * Returns a factory for a policy by name, for command-line and settings use.
+     *
+     * @param name         {@code random}, {@code greedy}, {@code expectimax},
+     *                     {@code learned} (one-ply on the evaluator) or
+     *                     {@code montecarlo}
+     * @param size         board size
+     * @param maxDepth     maximum search depth of the expectimax policy
+     * @param budgetMillis time budget per move of the expectimax and Monte Carlo policies
+     * @param tableBytes   transposition table memory of the expectimax policy
+     * @param evaluator    board evaluation of the expectimax and learned policies
+     * @return a supplier creating a fresh policy instance on each call
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static Supplier<MovePolicy> named(String name, int size, int maxDepth, long budgetMillis, long tableBytes,
+                                             BoardEvaluator evaluator) {
+        switch (name) {
+            case "random":
+                return MovePolicies::random;
+            case "greedy":
+                return MovePolicies::greedy;
+            case "expectimax":
+                return () -> expectimax(size, maxDepth, budgetMillis, tableBytes, evaluator);
+            case "learned":
+                return () -> afterstate(evaluator);
+            case "montecarlo":
+                return () -> monteCarlo(MonteCarlo.DEFAULT_ROLLOUTS, budgetMillis);
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    private static PackedBoard scratchFor(PackedBoard[] scratch, PackedBoard board) {
+        if (scratch[0] == null || scratch[0].size() != board.size()) {
+            scratch[0] = new PackedBoard(board.size());
+        }
+        return scratch[0];
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.PackedBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the next move of a game from its board.
+ * <p>
+ * Policies are used by simulations and automatic play. An instance may keep
+ * state between calls (for example a search with its cache), so each thread
+ * uses its own instance.
+ */
+@FunctionalInterface
+public interface MovePolicy {
+
+    /**
+     * Chooses a move for the given board.
+     *
+     * @param board  the current board; must not be modified
+     * @param random generator owned by the calling thread, for randomised policies
+     * @return a move that changes the board, or {@code null} if none exists
+     */
+    Direction choose(PackedBoard board, SplittableRandom random);
+}
@@ -0,0 +1,328 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.PackedBoard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Learned board evaluation with an n-tuple network.
+ * <p>
+ * Each tuple is a fixed group of cells; the exponents in those cells index a
+ * table of weights, and a board's value is the sum of the weights selected by
+ * every tuple under all eight rotations and reflections. The value estimates
+ * the score still to be gained after a move (before the tile spawns) and is
+ * learned by {@link TDTrainer}.
+ * <p>
+ * Weight tables live outside the Java heap: in direct buffers, or in a
+ * memory-mapped file so large models open without being read and keep their
+ * training progress across runs. Reads and writes are unsynchronised; several
+ * trainer threads may update the same network at once (Hogwild-style) and the
+ * occasional lost update is accepted.
+ */
+public final class NTupleNetwork implements BoardEvaluator {
+
+    private static final int MAGIC = 0x4E545550; // "NTUP"
+    private static final int VERSION = 1;
+    private static final int HEADER_ALIGNMENT = 4096;
+    private static final int SYMMETRIES = 8;
+    private static final int MAX_TUPLE_LENGTH = 7;
+    private static final int MAX_TUPLES = 64;
+
+    /** Two straight and two rectangular 6-tuples, as {row, col} pairs */
+    private static final int[][][] DEFAULT_TUPLES = {
+            {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {1, 0}, {1, 1}},
+            {{1, 0}, {1, 1}, {1, 2}, {1, 3}, {2, 0}, {2, 1}},
+            {{0, 0}, {0, 1}, {0, 2}, {1, 0}, {1, 1}, {1, 2}},
+            {{1, 0}, {1, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}},
+    };
+
+    private final int size;
+    private final int[][][] tuples;
+    private final ByteBuffer[] buffers;
+    private final FloatBuffer[] weights;
+    private final int[][][] features;
+    // Each thread unpacks boards into its own array, so evaluating does not allocate
+    private final ThreadLocal<int[]> cellScratch;
+
+    private NTupleNetwork(int size, int[][][] tuples, ByteBuffer[] buffers) {
+        this.size = size;
+        this.cellScratch = ThreadLocal.withInitial(() -> new int[size * size]);
+        this.tuples = tuples;
+        this.buffers = buffers;
+        this.weights = new FloatBuffer[buffers.length];
+        this.features = new int[tuples.length][SYMMETRIES][];
+        int last = size - 1;
+        for (int t = 0; t < tuples.length; t++) {
+            weights[t] = buffers[t].order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            for (int s = 0; s < SYMMETRIES; s++) {
+                int[] cells = new int[tuples[t].length];
+                for (int j = 0; j < cells.length; j++) {
+                    int row = tuples[t][j][0];
+                    int col = tuples[t][j][1];
+                    // Same symmetry order as Zobrist
+                    int r = (s & 4) == 0 ? row : col;
+                    int c = (s & 4) == 0 ? col : row;
+                    if ((s & 2) != 0) r = last - r;
+                    if ((s & 1) != 0) c = last - c;
+                    cells[j] = r * size + c;
+                }
+                features[t][s] = cells;
+            }
+        }
+    }
+
+    /**
+     * Creates a zero-initialised network held in direct memory.
+     *
+     * @param size board size (4-6)
+     * @return the new network
+     */
+    public static NTupleNetwork inMemory(int size) {
+        checkSize(size);
+        ByteBuffer[] buffers = new ByteBuffer[DEFAULT_TUPLES.length];
+        for (int t = 0; t < buffers.length; t++) {
+            buffers[t] = ByteBuffer.allocateDirect(tableBytes(DEFAULT_TUPLES[t].length));
+        }
+        return new NTupleNetwork(size, DEFAULT_TUPLES, buffers);
+    }
+
+    /**
+     * Opens a weights file for training, creating a zero-initialised one if it
+     * does not exist. Updates are written through to the file.
+     *
+     * @param file the weights file
+     * @param size board size (4-6)
+     * @return the mapped network
+     * @throws IOException if the file cannot be created or mapped, or was
+     *                     written for another board size
+     */
+    public static NTupleNetwork create(Path file, int size) throws IOException {
+        checkSize(size);
+        if (Files.exists(file)) {
+            NTupleNetwork network = map(file, true);
+            if (network.size != size) {
+                throw new IOException("Weights file " + file + " is for " + network.size + "x" + network.size);
+            }
+            return network;
+        }
+
+        ByteBuffer header = header(size, DEFAULT_TUPLES);
+        long length = dataOffset(header.remaining());
+        for (int[][] tuple : DEFAULT_TUPLES) {
+            length += tableBytes(tuple.length);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+            // Writing the last byte sizes the file; the zero weights are not written
+            channel.write(ByteBuffer.allocate(1), length - 1);
+        }
+        return map(file, true);
+    }
+
+    /**
+     * Opens a weights file read-only, for evaluation.
+     *
+     * @param file the weights file
+     * @return the mapped network
+     * @throws IOException if the file cannot be read or is not a weights file
+     */
+    public static NTupleNetwork open(Path file) throws IOException {
+        return map(file, false);
+    }
+
+    private static NTupleNetwork map(Path file, boolean writable) throws IOException {
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            ByteBuffer fixed = ByteBuffer.allocate(4 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, fixed, 0);
+            if (fixed.getInt(0) != MAGIC || fixed.getInt(4) != VERSION) {
+                throw new IOException("Not an n-tuple weights file: " + file);
+            }
+            int size = fixed.getInt(8);
+            int count = fixed.getInt(12);
+            if (size < PackedBoard.MIN_SIZE || size > PackedBoard.MAX_SIZE || count < 1 || count > MAX_TUPLES) {
+                throw new IOException("Corrupt weights file header: " + file);
+            }
+
+            long position = fixed.capacity();
+            int[][][] tuples = new int[count][][];
+            for (int t = 0; t < count; t++) {
+                ByteBuffer length = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, length, position);
+                position += Integer.BYTES;
+                if (length.getInt(0) < 1 || length.getInt(0) > MAX_TUPLE_LENGTH) {
+                    throw new IOException("Unsupported tuple length in " + file);
+                }
+                ByteBuffer cells = ByteBuffer.allocate(2 * Integer.BYTES * length.getInt(0))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, cells, position);
+                position += cells.capacity();
+                tuples[t] = new int[length.getInt(0)][2];
+                for (int j = 0; j < tuples[t].length; j++) {
+                    tuples[t][j][0] = cells.getInt(8 * j);
+                    tuples[t][j][1] = cells.getInt(8 * j + 4);
+                    if (tuples[t][j][0] < 0 || tuples[t][j][0] >= size
+                            || tuples[t][j][1] < 0 || tuples[t][j][1] >= size) {
+                        throw new IOException("Tuple cell outside the board in " + file);
+                    }
+                }
+            }
+
+            ByteBuffer[] buffers = new ByteBuffer[count];
+            long offset = dataOffset(position);
+            for (int t = 0; t < count; t++) {
+                int bytes = tableBytes(tuples[t].length);
+                if (offset + bytes > channel.size()) {
+                    throw new IOException("Truncated weights file: " + file);
+                }
+                MappedByteBuffer buffer = channel.map(mode, offset, bytes);
+                buffers[t] = buffer;
+                offset += bytes;
+            }
+            // The mappings stay valid after the channel is closed
+            return new NTupleNetwork(size, tuples, buffers);
+        }
+    }
+
+    /**
+     * Writes changed weights of a file-backed network to disk.
+     */
+    public void flush() {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer instanceof MappedByteBuffer mapped && !mapped.isReadOnly()) {
+                mapped.force();
+            }
+        }
+    }
+
+    /**
+     * @return the board size this network evaluates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of weights read per evaluation (tuples times symmetries)
+     */
+    public int featureCount() {
+        return tuples.length * SYMMETRIES;
+    }
+
+    /**
+     * @return total size of the weight tables in bytes
+     */
+    public long weightBytes() {
+        long total = 0;
+        for (ByteBuffer buffer : buffers) {
+            total += buffer.capacity();
+        }
+        return total;
+    }
+
+    @Override
+    public double evaluate(PackedBoard board) {
+        int[] cells = unpack(board);
+        double total = 0;
+        for (int t = 0; t < features.length; t++) {
+            FloatBuffer table = weights[t];
+            for (int[] feature : features[t]) {
+                total += table.get(index(cells, feature));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Adds the same amount to every weight used to evaluate a board.
+     *
+     * @param board the board whose weights to adjust
+     * @param delta amount added to each weight
+     */
+    public void update(PackedBoard board, double delta) {
+        int[] cells = unpack(board);
+        float change = (float) delta;
+        for (int t = 0; t < features.length; t++) {
+            FloatBuffer table = weights[t];
+            for (int[] feature : features[t]) {
+                int index = index(cells, feature);
+                table.put(index, table.get(index) + change);
+            }
+        }
+    }
+
+    @Override
+    public boolean countsScore() {
+        return true;
+    }
+
+    private int[] unpack(PackedBoard board) {
+        int[] cells = cellScratch.get();
+        for (int row = 0; row < size; row++) {
+            int line = board.row(row);
+            for (int col = 0; col < size; col++) {
+                cells[row * size + col] = (line >>> (4 * col)) & 0xF;
+            }
+        }
+        return cells;
+    }
+
+    private static int index(int[] cells, int[] feature) {
+        int index = 0;
+        for (int j = 0; j < feature.length; j++) {
+            index |= cells[feature[j]] << (4 * j);
+        }
+        return index;
+    }
+
+    private static ByteBuffer header(int size, int[][][] tuples) {
+        int bytes = 4 * Integer.BYTES;
+        for (int[][] tuple : tuples) {
+            bytes += Integer.BYTES + 2 * Integer.BYTES * tuple.length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(tuples.length);
+        for (int[][] tuple : tuples) {
+            header.putInt(tuple.length);
+            for (int[] cell : tuple) {
+                header.putInt(cell[0]).putInt(cell[1]);
+            }
+        }
+        return header.flip();
+    }
+
+    private static long dataOffset(long headerBytes) {
+        return (headerBytes + HEADER_ALIGNMENT - 1) / HEADER_ALIGNMENT * HEADER_ALIGNMENT;
+    }
+
+    private static int tableBytes(int tupleLength) {
+        return Float.BYTES << (4 * tupleLength);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of weights file");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void checkSize(int size) {
+        if (size < PackedBoard.MIN_SIZE || size > PackedBoard.MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be 4-6: " + size);
+        }
+    }
+}
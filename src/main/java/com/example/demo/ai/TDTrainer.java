@@ -0,0 +1,173 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.Game;
+import com.example.demo.engine.PackedBoard;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trains an {@link NTupleNetwork} by temporal-difference learning from
+ * self-play.
+ * <p>
+ * Every worker plays games greedily with respect to the network (move score
+ * plus value of the board after the move) and applies the TD(0) afterstate
+ * update after each move. All workers update the shared weight tables without
+ * locks (Hogwild-style); each has its own random generator split from the
+ * seed.
+ */
+public class TDTrainer {
+
+    /**
+     * Receives progress reports while training.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called with statistics of the games finished since the last report.
+         *
+         * @param gamesDone      total games finished so far
+         * @param meanScore      mean score of the games in this report
+         * @param winRate        fraction of those games that reached 2048
+         * @param movesPerSecond moves played per second since the last report
+         */
+        void onProgress(int gamesDone, double meanScore, double winRate, double movesPerSecond);
+    }
+
+    private final NTupleNetwork network;
+    private final double learningRate;
+
+    /**
+     * Creates a trainer.
+     *
+     * @param network      the network to train; must be writable
+     * @param learningRate step size of a TD update, shared out over the
+     *                     network's features
+     */
+    public TDTrainer(NTupleNetwork network, double learningRate) {
+        this.network = network;
+        this.learningRate = learningRate / network.featureCount();
+    }
+
+    /**
+     * Plays and learns from a number of games, blocking until they are done.
+     *
+     * @param games        number of games to play
+     * @param threads      number of worker threads
+     * @param seed         seed of the workers' random generators
+     * @param reportMillis interval between progress reports
+     * @param listener     receives progress reports on the calling thread
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public void train(int games, int threads, long seed, long reportMillis, ProgressListener listener)
+            throws InterruptedException {
+        AtomicInteger nextGame = new AtomicInteger();
+        AtomicInteger gamesDone = new AtomicInteger();
+        LongAdder finished = new LongAdder();
+        LongAdder scoreSum = new LongAdder();
+        LongAdder wins = new LongAdder();
+        LongAdder moves = new LongAdder();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        try {
+            Future<?>[] workers = new Future<?>[threads];
+            for (int w = 0; w < threads; w++) {
+                SplittableRandom random = seeds.split();
+                workers[w] = pool.submit(() -> {
+                    Game game = new Game(network.size(), random.nextLong());
+                    PackedBoard previous = new PackedBoard(network.size());
+                    PackedBoard after = new PackedBoard(network.size());
+                    while (nextGame.getAndIncrement() < games && !Thread.currentThread().isInterrupted()) {
+                        int played = playAndLearn(game, previous, after);
+                        moves.add(played);
+                        scoreSum.add(game.getScore());
+                        if (game.hasWon()) wins.increment();
+                        finished.increment();
+                        gamesDone.incrementAndGet();
+                    }
+                });
+            }
+
+            pool.shutdown();
+
+            long lastReport = System.nanoTime();
+            while (!pool.awaitTermination(reportMillis, TimeUnit.MILLISECONDS)) {
+                lastReport = report(listener, gamesDone.get(), finished, scoreSum, wins, moves, lastReport);
+            }
+            report(listener, gamesDone.get(), finished, scoreSum, wins, moves, lastReport);
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Training worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long report(ProgressListener listener, int gamesDone, LongAdder finished, LongAdder scoreSum,
+                               LongAdder wins, LongAdder moves, long lastReport) {
+        long now = System.nanoTime();
+        // A game finishing during the resets may be split across two reports
+        long games = Math.max(1, finished.sumThenReset());
+        long score = scoreSum.sumThenReset();
+        long won = wins.sumThenReset();
+        long played = moves.sumThenReset();
+        listener.onProgress(gamesDone, (double) score / games, (double) won / games,
+                played / ((now - lastReport) / 1e9));
+        return now;
+    }
+
+    /**
+     * Plays one game, updating the value of each afterstate towards the move
+     * score plus the value of the next afterstate.
+     *
+     * @return number of moves played
+     */
+    private int playAndLearn(Game game, PackedBoard previous, PackedBoard after) {
+        game.start();
+        boolean hasPrevious = false;
+        int played = 0;
+        while (true) {
+            Direction best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            int bestGain = 0;
+            for (Direction direction : Direction.values()) {
+                after.copyFrom(game.getBoard());
+                int gained = after.move(direction);
+                if (gained < 0) continue;
+                double value = gained + network.evaluate(after);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = direction;
+                    bestGain = gained;
+                }
+            }
+            if (best == null) break;
+
+            after.copyFrom(game.getBoard());
+            after.move(best);
+            if (hasPrevious) {
+                double error = bestGain + network.evaluate(after) - network.evaluate(previous);
+                network.update(previous, learningRate * error);
+            }
+            previous.copyFrom(after);
+            hasPrevious = true;
+            game.move(best);
+            played++;
+        }
+        if (hasPrevious) {
+            // Nothing more can be gained after the last move
+            network.update(previous, -learningRate * network.evaluate(previous));
+        }
+        return played;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.ai;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size cache of search results keyed by canonical {@link Zobrist} hashes.
+ * <p>
+ * The table is 2-way set-associative: a key maps to one set of two slots and,
+ * when both are taken, the least recently used slot of that set is evicted.
+ * All storage is allocated up front in primitive arrays (13 bytes per entry),
+ * so the memory used does not depend on the board size or on how long the
+ * table is in use. The full 64-bit key is kept to reject index collisions.
+ * <p>
+ * Hit, miss and eviction counters are kept so the capacity can be tuned.
+ * Instances are not thread-safe; use one per searching thread.
+ */
+public class TranspositionTable {
+
+    /** Bytes of storage used per entry */
+    public static final int BYTES_PER_ENTRY = Long.BYTES + Float.BYTES + 1;
+
+    private final long[] keys;
+    private final float[] values;
+    private final byte[] depths;
+    private final boolean[] recentIsSecond;
+    private final int setMask;
+
+    private long hits;
+    private long misses;
+    private long stores;
+    private long evictions;
+
+    /**
+     * Creates a table with room for at least the given number of entries,
+     * rounded up to a power of two.
+     *
+     * @param capacity requested number of entries (at least 2)
+     */
+    public TranspositionTable(int capacity) {
+        int entries = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.keys = new long[entries];
+        this.values = new float[entries];
+        this.depths = new byte[entries];
+        this.recentIsSecond = new boolean[entries / 2];
+        this.setMask = entries / 2 - 1;
+    }
+
+    /**
+     * Creates a table that uses at most the given amount of memory.
+     *
+     * @param bytes memory budget in bytes
+     * @return a table whose capacity is the largest power of two that fits
+     */
+    public static TranspositionTable withMemory(long bytes) {
+        long entries = Math.max(2, bytes / BYTES_PER_ENTRY);
+        return new TranspositionTable((int) Long.highestOneBit(Math.min(entries, 1 << 30)));
+    }
+
+    /**
+     * Looks up a stored value that was searched at least as deep as required.
+     *
+     * @param key   canonical position key
+     * @param depth remaining search depth needed
+     * @return the stored value, or {@link Double#NaN} on a miss
+     */
+    public double get(long key, int depth) {
+        int set = setOf(key);
+        int slot = 2 * set;
+        if (depths[slot] != 0 && keys[slot] == key && depths[slot] >= depth) {
+            recentIsSecond[set] = false;
+            hits++;
+            return values[slot];
+        }
+        slot++;
+        if (depths[slot] != 0 && keys[slot] == key && depths[slot] >= depth) {
+            recentIsSecond[set] = true;
+            hits++;
+            return values[slot];
+        }
+        misses++;
+        return Double.NaN;
+    }
+
+    /**
+     * Stores a search result, replacing an entry for the same key or else an
+     * empty or least recently used slot of its set.
+     *
+     * @param key   canonical position key
+     * @param depth remaining search depth the value was computed with (1-127)
+     * @param value the search value
+     */
+    public void put(long key, int depth, double value) {
+        int set = setOf(key);
+        int first = 2 * set;
+        int slot;
+        if (depths[first] == 0 || keys[first] == key) {
+            slot = first;
+        } else if (depths[first + 1] == 0 || keys[first + 1] == key) {
+            slot = first + 1;
+        } else {
+            slot = recentIsSecond[set] ? first : first + 1;
+            evictions++;
+        }
+        keys[slot] = key;
+        values[slot] = (float) value;
+        depths[slot] = (byte) depth;
+        recentIsSecond[set] = slot != first;
+        stores++;
+    }
+
+    /**
+     * Removes all entries and resets the counters.
+     */
+    public void clear() {
+        Arrays.fill(depths, (byte) 0);
+        hits = 0;
+        misses = 0;
+        stores = 0;
+        evictions = 0;
+    }
+
+    /**
+     * @return number of entry slots
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return memory used by the entry arrays in bytes
+     */
+    public long memoryBytes() {
+        return (long) keys.length * BYTES_PER_ENTRY + recentIsSecond.length;
+    }
+
+    /**
+     * @return number of lookups that returned a value
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of lookups that found nothing usable
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of values stored
+     */
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * @return number of stores that overwrote a different position
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return fraction of lookups that were hits, 0 if there were none
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private int setOf(long key) {
+        return (int) (key ^ (key >>> 32)) & setMask;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranspositionTable[capacity=%d, memory=%d KB, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d]",
+                capacity(), memoryBytes() / 1024, hits, misses, 100 * hitRate(), evictions);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.ai;
+
+import com.example.demo.engine.PackedBoard;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing of boards under all eight rotations and reflections.
+ * <p>
+ * Every (cell, exponent) pair has a fixed random key and a board hashes to the
+ * XOR of the keys of its tiles (empty cells contribute nothing). The hashes of
+ * the eight symmetric images of a board are kept side by side; the smallest of
+ * them is the same for every image and serves as the canonical key.
+ * <p>
+ * Placing a tile only XORs one key into each of the eight hashes, so a search
+ * can derive the hashes of every spawn outcome from those of the position
+ * before the spawn. Full hashes are computed a row at a time from tables over
+ * 3-cell chunks.
+ */
+public final class Zobrist {
+
+    /** Number of symmetries of a square board */
+    public static final int SYMMETRIES = 8;
+
+    private static final int MAX = PackedBoard.MAX_SIZE;
+    private static final int CHUNK_MASK = 0xFFF;
+
+    private static final long[][] KEYS = new long[MAX * MAX][16];
+    private static final long[][] CHUNK_KEYS = new long[MAX * 2][CHUNK_MASK + 1];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x2048L);
+        for (long[] cell : KEYS) {
+            for (int exponent = 1; exponent < cell.length; exponent++) {
+                cell[exponent] = random.nextLong();
+            }
+        }
+        for (int row = 0; row < MAX; row++) {
+            for (int half = 0; half < 2; half++) {
+                for (int chunk = 0; chunk <= CHUNK_MASK; chunk++) {
+                    long key = 0;
+                    for (int k = 0; k < 3; k++) {
+                        key ^= KEYS[row * MAX + 3 * half + k][(chunk >>> (4 * k)) & 0xF];
+                    }
+                    CHUNK_KEYS[row * 2 + half][chunk] = key;
+                }
+            }
+        }
+    }
+
+    private Zobrist() {
+        // Utility class
+    }
+
+    /**
+     * Computes the hashes of all eight symmetric images of a board.
+     *
+     * @param board  the board to hash
+     * @param hashes output array of length {@value #SYMMETRIES}
+     */
+    public static void hashAll(PackedBoard board, long[] hashes) {
+        int n = board.size();
+        int last = n - 1;
+        Arrays.fill(hashes, 0);
+        for (int i = 0; i < n; i++) {
+            int row = board.row(i);
+            int column = board.column(i);
+            int reversedRow = PackedBoard.reverseLine(row, n);
+            int reversedColumn = PackedBoard.reverseLine(column, n);
+            // Each row of an image is a row or column of the board, possibly mirrored
+            hashes[0] ^= lineKey(i, row);
+            hashes[1] ^= lineKey(i, reversedRow);
+            hashes[2] ^= lineKey(last - i, row);
+            hashes[3] ^= lineKey(last - i, reversedRow);
+            hashes[4] ^= lineKey(i, column);
+            hashes[5] ^= lineKey(i, reversedColumn);
+            hashes[6] ^= lineKey(last - i, column);
+            hashes[7] ^= lineKey(last - i, reversedColumn);
+        }
+    }
+
+    /**
+     * Updates all eight hashes for a tile being placed on, or removed from,
+     * an otherwise empty cell. Calling it twice restores the hashes.
+     *
+     * @param hashes   the symmetric hashes to update
+     * @param n        board size
+     * @param row      row of the tile
+     * @param col      column of the tile
+     * @param exponent the tile exponent
+     */
+    public static void place(long[] hashes, int n, int row, int col, int exponent) {
+        int last = n - 1;
+        hashes[0] ^= KEYS[row * MAX + col][exponent];
+        hashes[1] ^= KEYS[row * MAX + (last - col)][exponent];
+        hashes[2] ^= KEYS[(last - row) * MAX + col][exponent];
+        hashes[3] ^= KEYS[(last - row) * MAX + (last - col)][exponent];
+        hashes[4] ^= KEYS[col * MAX + row][exponent];
+        hashes[5] ^= KEYS[col * MAX + (last - row)][exponent];
+        hashes[6] ^= KEYS[(last - col) * MAX + row][exponent];
+        hashes[7] ^= KEYS[(last - col) * MAX + (last - row)][exponent];
+    }
+
+    /**
+     * Returns the key shared by all symmetric images of a board.
+     *
+     * @param hashes the eight symmetric hashes
+     * @return the smallest hash
+     */
+    public static long canonical(long[] hashes) {
+        long min = hashes[0];
+        for (int s = 1; s < SYMMETRIES; s++) {
+            min = Math.min(min, hashes[s]);
+        }
+        return min;
+    }
+
+    /**
+     * Returns the canonical key of a board.
+     *
+     * @param board the board to hash
+     * @return the key shared by all symmetric images of the board
+     */
+    public static long canonical(PackedBoard board) {
+        long[] hashes = new long[SYMMETRIES];
+        hashAll(board, hashes);
+        return canonical(hashes);
+    }
+
+    private static long lineKey(int row, int line) {
+        return CHUNK_KEYS[row * 2][line & CHUNK_MASK] ^ CHUNK_KEYS[row * 2 + 1][(line >>> 12) & CHUNK_MASK];
+    }
+}
@@ -1,10 +1,22 @@
 package com.example.demo.data;
 
+import com.example.demo.ai.BoardEvaluator;
+import com.example.demo.ai.Heuristic;
+import com.example.demo.ai.NTupleNetwork;
+import com.example.demo.replay.ReplayArchive;
+
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -24,6 +36,26 @@ public class DataManager {
     private static final String LAST_PLAYER_FILE = "last_player.txt";
     private static final String ACCOUNTS_FILE = "accounts.dat";
     private static final String ACCOUNTS_SERIALIZED_FILE = "accounts.ser";
+
+    /** Subdirectory for recorded games */
+    private static final String REPLAY_DIR = "replays";
+
+    /** Archive of finished games and its metadata index */
+    private static final String REPLAY_ARCHIVE_FILE = "replays.archive";
+    private static final String REPLAY_INDEX_FILE = "replays.index";
+
+    /** Replay archive, opened on first use */
+    private static ReplayArchive replayArchive;
+
+    /** Adds finished replays to the archive, off the JavaFX thread and in order */
+    private static final ExecutorService ARCHIVER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "replay-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Evaluators already loaded, by board size */
+    private static final Map<Integer, BoardEvaluator> EVALUATORS = new ConcurrentHashMap<>();
     
     /** Path to the game data directory */
     private static Path gameDataDir;
@@ -228,4 +260,150 @@ public class DataManager {
     public static Path getGameDataDir() {
         return gameDataDir;
     }
+
+    /**
+     * Gets the path of the learned n-tuple weights for a board size.
+     *
+     * @param boardSize the board size (4, 5 or 6)
+     * @return the Path to the weights file, which may not exist
+     */
+    public static Path getWeightsFile(int boardSize) {
+        return gameDataDir.resolve("ntuple-" + boardSize + "x" + boardSize + ".weights");
+    }
+
+    /**
+     * Gets the directory that recorded games are saved in.
+     *
+     * @return the Path to the replay directory, which may not exist yet
+     */
+    public static Path getReplayDir() {
+        return gameDataDir.resolve(REPLAY_DIR);
+    }
+
+    /**
+     * Gets a new path for the replay of a game, creating the replay directory
+     * if needed. The name holds the start time, board size and seed.
+     *
+     * @param boardSize the board size (4, 5 or 6)
+     * @param seed      the seed of the game
+     * @return the Path to a replay file that does not exist yet
+     * @throws IOException if the replay directory cannot be created
+     */
+    public static Path newReplayFile(int boardSize, long seed) throws IOException {
+        Path dir = Files.createDirectories(getReplayDir());
+        return dir.resolve(String.format("game-%d-%dx%d-%016x.replay",
+                System.currentTimeMillis(), boardSize, boardSize, seed));
+    }
+
+    /**
+     * Opens the replay archive in the game data directory on first use.
+     *
+     * @return the shared archive
+     * @throws IOException if the archive cannot be opened
+     */
+    public static synchronized ReplayArchive getReplayArchive() throws IOException {
+        if (replayArchive == null) {
+            replayArchive = ReplayArchive.open(gameDataDir.resolve(REPLAY_ARCHIVE_FILE),
+                    gameDataDir.resolve(REPLAY_INDEX_FILE));
+        }
+        return replayArchive;
+    }
+
+    /**
+     * Moves replay files left in the replay directory, e.g. by a game that
+     * was interrupted, into the archive without a player name. Call it once
+     * at startup, before any game is recorded: the directory is listed at
+     * once, so files created later are never taken for leftovers.
+     *
+     * @return completes when every leftover file has been archived
+     */
+    public static CompletableFuture<Void> archiveLeftoverReplays() {
+        Path dir = getReplayDir();
+        if (!Files.isDirectory(dir)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<Path> leftovers;
+        try (Stream<Path> files = Files.list(dir)) {
+            leftovers = files.filter(file -> file.getFileName().toString().endsWith(".replay")).toList();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to list leftover replays in " + dir, e);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<?>[] archived = new CompletableFuture<?>[leftovers.size()];
+        for (int i = 0; i < archived.length; i++) {
+            Path file = leftovers.get(i);
+            long timestamp;
+            try {
+                timestamp = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                timestamp = System.currentTimeMillis();
+            }
+            archived[i] = archiveReplay(file, "", timestamp);
+        }
+        return CompletableFuture.allOf(archived);
+    }
+
+    /**
+     * Moves a finished replay file into the replay archive. Adding a game
+     * plays its replay and remaps the archive, so it is done on a background
+     * thread, one file at a time.
+     *
+     * @param file      the replay file; deleted once archived
+     * @param player    name of the player
+     * @param timestamp when the game was played, in epoch milliseconds
+     * @return completes when the file has been archived or the attempt failed
+     */
+    public static CompletableFuture<Void> archiveReplay(Path file, String player, long timestamp) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                getReplayArchive().append(file, player, timestamp);
+                Files.delete(file);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to archive replay: " + file, e);
+            }
+        }, ARCHIVER);
+    }
+
+    /**
+     * Waits for the replays handed to {@link #archiveReplay} to be archived,
+     * for a few seconds at most, and accepts no more. Meant for shutdown, so
+     * the last game is not left behind as an anonymous leftover.
+     */
+    public static void finishArchiving() {
+        ARCHIVER.shutdown();
+        try {
+            if (!ARCHIVER.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.warning("Replays still being archived at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loads the board evaluator used by hints and auto play. The learned
+     * network is memory-mapped read-only if its weights file exists;
+     * otherwise the handcrafted heuristic is used.
+     *
+     * @param boardSize the board size (4, 5 or 6)
+     * @return the evaluator for that board size
+     */
+    public static BoardEvaluator loadEvaluator(int boardSize) {
+        return EVALUATORS.computeIfAbsent(boardSize, size -> {
+            Path file = getWeightsFile(size);
+            if (Files.exists(file)) {
+                try {
+                    NTupleNetwork network = NTupleNetwork.open(file);
+                    if (network.size() == size) {
+                        LOGGER.info("Loaded n-tuple weights: " + file);
+                        return network;
+                    }
+                    LOGGER.warning("Weights file is for another board size: " + file);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to load n-tuple weights: " + file, e);
+                }
+            }
+            return Heuristic.evaluator();
+        });
+    }
 }
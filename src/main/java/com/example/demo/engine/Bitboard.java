@@ -0,0 +1,252 @@
+package com.example.demo.engine;
+
+/**
+ * Static operations on a 4x4 board packed into a single {@code long}.
+ * <p>
+ * Each tile is stored as a 4-bit exponent (0 = empty, 1 = 2, 2 = 4, ... 15 = 32768).
+ * The tile at (row, col) lives in nibble {@code row * 4 + col}, so row 0 occupies the
+ * lowest 16 bits and column 0 is the lowest nibble of each row.
+ * <p>
+ * All methods are pure functions without any JavaFX dependency, so they can be
+ * called from any thread.
+ */
+public final class Bitboard {
+
+    /** Number of rows and columns of a packed board */
+    public static final int SIZE = 4;
+
+    /** Highest exponent that fits into one nibble; such tiles no longer merge */
+    public static final int MAX_EXPONENT = 15;
+
+    private static final long ROW_MASK = 0xFFFFL;
+
+    private Bitboard() {
+        // Utility class
+    }
+
+    /**
+     * Returns the exponent of the tile at the given position.
+     *
+     * @param board the packed board
+     * @param row   row index (0-3)
+     * @param col   column index (0-3)
+     * @return the tile exponent, 0 if the cell is empty
+     */
+    public static int get(long board, int row, int col) {
+        return (int) (board >>> (4 * (row * SIZE + col))) & 0xF;
+    }
+
+    /**
+     * Returns a copy of the board with the given cell set to an exponent.
+     *
+     * @param board    the packed board
+     * @param row      row index (0-3)
+     * @param col      column index (0-3)
+     * @param exponent the new tile exponent (0-15)
+     * @return the updated board
+     */
+    public static long set(long board, int row, int col, int exponent) {
+        int shift = 4 * (row * SIZE + col);
+        return (board & ~(0xFL << shift)) | ((long) exponent << shift);
+    }
+
+    /**
+     * Converts a tile exponent to the value shown on the tile.
+     *
+     * @param exponent the tile exponent
+     * @return the tile value, 0 for an empty cell
+     */
+    public static int tileValue(int exponent) {
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+
+    /**
+     * Converts a tile value to its exponent.
+     *
+     * @param value the tile value (0 or a power of two)
+     * @return the exponent, 0 for an empty cell
+     */
+    public static int exponentOf(int value) {
+        return value == 0 ? 0 : Integer.numberOfTrailingZeros(value);
+    }
+
+    /**
+     * Counts the empty cells of the board.
+     *
+     * @param board the packed board
+     * @return number of empty cells (0-16)
+     */
+    public static int countEmpty(long board) {
+        return SIZE * SIZE - Long.bitCount(occupied(board));
+    }
+
+    /**
+     * Returns a mask with the lowest bit of every occupied nibble set.
+     *
+     * @param board the packed board
+     * @return one bit per non-empty cell, at bit {@code 4 * index}
+     */
+    public static long occupied(long board) {
+        long x = board | (board >>> 1);
+        x |= x >>> 2;
+        return x & 0x1111111111111111L;
+    }
+
+    /**
+     * Returns a compact mask of the occupied cells.
+     *
+     * @param board the packed board
+     * @return bit {@code i} set if nibble {@code i} is non-empty (16 bits)
+     */
+    public static int occupiedCells(long board) {
+        // Gather the bit at 4 * i down to bit i, doubling the group size each step
+        long x = occupied(board);
+        x = (x | (x >>> 3)) & 0x0303030303030303L;
+        x = (x | (x >>> 6)) & 0x000F000F000F000FL;
+        x = (x | (x >>> 12)) & 0x000000FF000000FFL;
+        return (int) ((x | (x >>> 24)) & 0xFFFF);
+    }
+
+    /**
+     * Returns the position of the k-th set bit of a mask, in constant time.
+     *
+     * @param mask the bits to choose from
+     * @param k    zero-based rank of the wanted bit; less than {@code Long.bitCount(mask)}
+     * @return the index of that bit
+     */
+    public static int selectBit(long mask, int k) {
+        int base = 0;
+        // Narrow down by halves: skip the lower part when it holds k bits or fewer
+        for (int width = 32; width > 0; width >>>= 1) {
+            int low = Long.bitCount(mask & ((1L << width) - 1));
+            if (k >= low) {
+                k -= low;
+                mask >>>= width;
+                base += width;
+            }
+        }
+        return base;
+    }
+
+    /**
+     * Returns the largest exponent on the board.
+     *
+     * @param board the packed board
+     * @return the maximum tile exponent, 0 for an empty board
+     */
+    public static int maxExponent(long board) {
+        int max = 0;
+        while (board != 0) {
+            max = Math.max(max, (int) (board & 0xF));
+            board >>>= 4;
+        }
+        return max;
+    }
+
+    /**
+     * Slides and merges all tiles of the board in the given direction.
+     * Costs four row-table lookups (plus two transpositions for vertical moves).
+     *
+     * @param board     the packed board
+     * @param direction the direction to move
+     * @return the resulting board; equal to {@code board} if nothing moved
+     */
+    public static long move(long board, Direction direction) {
+        switch (direction) {
+            case LEFT:
+                return moveLeft(board);
+            case RIGHT:
+                return moveRight(board);
+            case UP:
+                return transpose(moveLeft(transpose(board)));
+            default:
+                return transpose(moveRight(transpose(board)));
+        }
+    }
+
+    /**
+     * Returns the score gained by moving the board in the given direction.
+     * The score is the sum of the values of all tiles created by merges.
+     *
+     * @param board     the packed board
+     * @param direction the direction to move
+     * @return score gained by the move
+     */
+    public static int moveScore(long board, Direction direction) {
+        switch (direction) {
+            case LEFT:
+                return leftScore(board);
+            case RIGHT:
+                return rightScore(board);
+            case UP:
+                return leftScore(transpose(board));
+            default:
+                return rightScore(transpose(board));
+        }
+    }
+
+    /**
+     * Checks whether any move changes the board.
+     *
+     * @param board the packed board
+     * @return {@code true} if at least one direction is legal
+     */
+    public static boolean canMove(long board) {
+        for (Direction direction : Direction.values()) {
+            if (move(board, direction) != board) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Transposes the board so rows become columns.
+     *
+     * @param board the packed board
+     * @return the transposed board
+     */
+    public static long transpose(long board) {
+        long a1 = board & 0xF0F00F0FF0F00F0FL;
+        long a2 = board & 0x0000F0F00000F0F0L;
+        long a3 = board & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    /**
+     * Extracts one packed 16-bit row.
+     *
+     * @param board the packed board
+     * @param row   row index (0-3)
+     * @return the row with column 0 in the lowest nibble
+     */
+    public static int row(long board, int row) {
+        return (int) ((board >>> (16 * row)) & ROW_MASK);
+    }
+
+    private static long moveLeft(long board) {
+        return RowTable.left(row(board, 0))
+                | (long) RowTable.left(row(board, 1)) << 16
+                | (long) RowTable.left(row(board, 2)) << 32
+                | (long) RowTable.left(row(board, 3)) << 48;
+    }
+
+    private static long moveRight(long board) {
+        return RowTable.right(row(board, 0))
+                | (long) RowTable.right(row(board, 1)) << 16
+                | (long) RowTable.right(row(board, 2)) << 32
+                | (long) RowTable.right(row(board, 3)) << 48;
+    }
+
+    private static int leftScore(long board) {
+        return RowTable.leftScore(row(board, 0)) + RowTable.leftScore(row(board, 1))
+                + RowTable.leftScore(row(board, 2)) + RowTable.leftScore(row(board, 3));
+    }
+
+    private static int rightScore(long board) {
+        return RowTable.rightScore(row(board, 0)) + RowTable.rightScore(row(board, 1))
+                + RowTable.rightScore(row(board, 2)) + RowTable.rightScore(row(board, 3));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.engine;
+
+/**
+ * The four directions in which tiles can be slid.
+ * <p>
+ * Each direction has a stable two-bit code so that moves can be stored
+ * compactly (e.g., in move lists or recorded games).
+ */
+public enum Direction {
+    LEFT,
+    RIGHT,
+    UP,
+    DOWN;
+
+    private static final Direction[] VALUES = values();
+
+    /**
+     * Returns the two-bit code of this direction.
+     *
+     * @return a value between 0 and 3
+     */
+    public int code() {
+        return ordinal();
+    }
+
+    /**
+     * Returns the direction for a two-bit code.
+     *
+     * @param code a value between 0 and 3
+     * @return the matching direction
+     */
+    public static Direction fromCode(int code) {
+        return VALUES[code & 3];
+    }
+}
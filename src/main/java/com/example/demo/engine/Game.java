@@ -0,0 +1,351 @@
+package com.example.demo.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Headless 2048 game session on a {@link PackedBoard} of any supported size.
+ * <p>
+ * Holds the packed board and the score, applies moves, spawns new tiles and
+ * answers win / game-over queries. It has no JavaFX dependency, so it can be
+ * driven from the FX thread by {@code GameScene} or from worker threads for
+ * simulation and analysis.
+ * <p>
+ * Each game owns a {@link SplittableRandom} created from a recorded seed, so
+ * games never contend on a shared generator and a game can be replayed
+ * exactly from its seed and its list of moves.
+ * <p>
+ * The largest tile and whether any move is left are kept up to date as moves
+ * and spawns are applied, so win and game-over checks take constant time
+ * instead of scanning the board.
+ * <p>
+ * {@link #prepareSuccessors()} computes the four possible next boards ahead
+ * of time; the next {@link #move} then only copies the chosen one, and the
+ * legal directions are known without sliding.
+ * <p>
+ * A {@link MoveListener} can be told about every move and the tile it
+ * spawned, e.g. to record the game; {@link #replayMove} and
+ * {@link #placeTile} apply such a record again. A {@link MoveChanges} list
+ * can be filled with what each move did to the tiles, for views that update
+ * only the tiles involved.
+ */
+public class Game {
+
+    /** Exponent of the winning tile (2048) */
+    public static final int WIN_EXPONENT = 11;
+
+    /** Probability that a spawned tile is a 4 instead of a 2 */
+    public static final double FOUR_PROBABILITY = 0.5;
+
+    private final PackedBoard board;
+    private SplittableRandom random;
+    private long seed;
+    private long score;
+    private int maxExponent;
+    private boolean canMove;
+    private final Successors successors;
+    private boolean successorsReady;
+    private int lastSpawnCell = -1;
+    private int lastSpawnExponent;
+    private MoveListener moveListener;
+    private MoveChanges changes;
+
+    /**
+     * Creates a game with an empty board and a randomly chosen seed.
+     *
+     * @param size number of rows and columns (4-6)
+     */
+    public Game(int size) {
+        this(size, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a game with an empty board whose tiles spawn from the given seed.
+     *
+     * @param size number of rows and columns (4-6)
+     * @param seed seed of the spawn generator
+     */
+    public Game(int size, long seed) {
+        this.board = new PackedBoard(size);
+        this.successors = new Successors(size);
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Starts a new game with a seed drawn from the previous game's generator,
+     * so a chain of games is reproducible from the first seed.
+     */
+    public void start() {
+        start(random.nextLong());
+    }
+
+    /**
+     * Clears the board and score, reseeds the spawn generator and places the
+     * two starting tiles.
+     *
+     * @param seed seed of this game's spawns
+     */
+    public void start(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        board.clear();
+        score = 0;
+        maxExponent = 0;
+        successorsReady = false;
+        spawnTile();
+        spawnTile();
+    }
+
+    /**
+     * Returns the seed the current game's spawns were generated from.
+     *
+     * @return the seed passed to {@link #start(long)} or the constructor
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Applies a move. If any tile moved, the gained score is added and a new
+     * tile is spawned.
+     *
+     * @param direction the direction to slide
+     * @return {@code true} if the board changed
+     */
+    public boolean move(Direction direction) {
+        if (!slide(direction)) return false;
+        spawnTile();
+        if (changes != null) {
+            changes.addSpawn(lastSpawnCell, lastSpawnExponent);
+        }
+        if (moveListener != null) {
+            moveListener.moved(direction, lastSpawnCell, lastSpawnExponent);
+        }
+        return true;
+    }
+
+    /**
+     * Applies a recorded move: the tiles slide as in {@link #move}, but the
+     * recorded tile is placed instead of a random one. The move listener is
+     * not called.
+     *
+     * @param direction the direction to slide
+     * @param cell      index {@code row * size + col} of the spawned tile
+     * @param exponent  exponent of the spawned tile (1 or 2)
+     * @return {@code true} if the board changed
+     */
+    public boolean replayMove(Direction direction, int cell, int exponent) {
+        if (!slide(direction)) return false;
+        placeTile(cell, exponent);
+        if (changes != null) {
+            changes.addSpawn(cell, exponent);
+        }
+        return true;
+    }
+
+    /**
+     * Slides the tiles and adds the gained score, without spawning.
+     *
+     * @return {@code true} if the board changed
+     */
+    private boolean slide(Direction direction) {
+        if (changes != null) {
+            changes.clear();
+            if (!isLegal(direction)) return false;
+            changes.recordSlide(board, direction);
+        }
+        int gained;
+        if (successorsReady) {
+            if (!successors.isLegal(direction)) return false;
+            board.copyFrom(successors.board(direction));
+            gained = successors.gain(direction);
+        } else {
+            gained = board.move(direction);
+            if (gained < 0) return false;
+        }
+        successorsReady = false;
+        score += gained;
+        // A merge into exponent e scores at least 2^e, so only a large enough
+        // gain can have raised the largest tile
+        if (gained > 0 && 31 - Integer.numberOfLeadingZeros(gained) > maxExponent) {
+            maxExponent = board.maxExponent();
+        }
+        return true;
+    }
+
+    /**
+     * Places a 2 or 4 on a uniformly chosen empty cell. The cell is picked
+     * from the board's empty-cell mask without scanning or allocating.
+     *
+     * @return {@code true} if a tile was placed, {@code false} if the board is full
+     */
+    public boolean spawnTile() {
+        long empty = board.emptyMask();
+        if (empty == 0) return false;
+
+        int cell = Bitboard.selectBit(empty, random.nextInt(Long.bitCount(empty)));
+        int exponent = random.nextDouble() < FOUR_PROBABILITY ? 2 : 1;
+        placeTile(cell, exponent);
+        return true;
+    }
+
+    /**
+     * Places a tile on an empty cell, as a spawn would.
+     *
+     * @param cell     index {@code row * size + col} of an empty cell
+     * @param exponent exponent of the tile (1 or 2)
+     */
+    public void placeTile(int cell, int exponent) {
+        int n = board.size();
+        board.set(cell / n, cell % n, exponent);
+        successorsReady = false;
+        lastSpawnCell = cell;
+        lastSpawnExponent = exponent;
+        maxExponent = Math.max(maxExponent, exponent);
+        // With an empty cell left some tile can always slide into it
+        long empty = board.emptyMask();
+        canMove = empty != 0 || board.canMove();
+    }
+
+    /**
+     * Sets the listener told about every move made through {@link #move}.
+     *
+     * @param listener the listener, or {@code null} for none
+     */
+    public void setMoveListener(MoveListener listener) {
+        this.moveListener = listener;
+    }
+
+    /**
+     * Sets the list filled with the changes of every move made through
+     * {@link #move} or {@link #replayMove}. Without a list moves do not
+     * work out their changes.
+     *
+     * @param changes a list for this game's board size, or {@code null} for none
+     */
+    public void setChangeList(MoveChanges changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * @return cell index of the most recently placed tile, -1 if none yet
+     */
+    public int getLastSpawnCell() {
+        return lastSpawnCell;
+    }
+
+    /**
+     * @return exponent of the most recently placed tile
+     */
+    public int getLastSpawnExponent() {
+        return lastSpawnExponent;
+    }
+
+    /**
+     * Returns the value shown on the tile at the given position.
+     *
+     * @param row row index
+     * @param col column index
+     * @return the tile value, 0 if empty
+     */
+    public int getTile(int row, int col) {
+        return Bitboard.tileValue(board.get(row, col));
+    }
+
+    /**
+     * @return number of rows and columns
+     */
+    public int getSize() {
+        return board.size();
+    }
+
+    /**
+     * Returns the live packed board. Callers must not modify it.
+     *
+     * @return the current board
+     */
+    public PackedBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the score of this game.
+     *
+     * @return the accumulated merge score
+     */
+    public long getScore() {
+        return score;
+    }
+
+    /**
+     * Replaces the board and score (e.g., when undoing a move).
+     *
+     * @param board the board to restore; copied into this game
+     * @param score the score to restore
+     */
+    public void restore(PackedBoard board, long score) {
+        this.board.copyFrom(board);
+        this.score = score;
+        this.maxExponent = board.maxExponent();
+        this.canMove = board.canMove();
+        this.successorsReady = false;
+    }
+
+    /**
+     * Computes the boards reachable by each of the four moves from the
+     * current board, unless they are already known. Meant to be called while
+     * waiting for the player's next move.
+     */
+    public void prepareSuccessors() {
+        if (!successorsReady) {
+            successors.compute(board);
+            successorsReady = true;
+        }
+    }
+
+    /**
+     * Returns the legal directions, computing the successors if needed.
+     *
+     * @return bit {@link Direction#code()} set for every move that changes the board
+     */
+    public int getLegalMoves() {
+        prepareSuccessors();
+        return successors.legalMask();
+    }
+
+    /**
+     * @param direction the move to check
+     * @return {@code true} if the move changes the board
+     */
+    public boolean isLegal(Direction direction) {
+        return (getLegalMoves() & (1 << direction.code())) != 0;
+    }
+
+    /**
+     * @return exponent of the largest tile on the board
+     */
+    public int getMaxExponent() {
+        return maxExponent;
+    }
+
+    /**
+     * @return number of empty cells
+     */
+    public int getEmptyCount() {
+        return board.countEmpty();
+    }
+
+    /**
+     * @return {@code true} if a 2048 tile (or higher) is on the board
+     */
+    public boolean hasWon() {
+        return maxExponent >= WIN_EXPONENT;
+    }
+
+    /**
+     * @return {@code true} if no move can change the board
+     */
+    public boolean isOver() {
+        return successorsReady ? successors.legalMask() == 0 : !canMove;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.engine;
+
+/**
+ * What the last move did to each tile, as a compact list of changes.
+ * <p>
+ * Every tile that slid gives one {@link #MOVE} (from its cell to the cell
+ * it stopped in), every pair that merged gives one {@link #MERGE} (the
+ * second tile of the pair sliding into the first, which takes the merged
+ * exponent), and the new tile gives a {@link #SPAWN}. Tiles that stay where
+ * they are and do not merge are not listed. A change is packed into one int
+ * (kind, from, to, exponent) in a preallocated array, so recording a move
+ * does not allocate.
+ * <p>
+ * The changes of one line are listed from the edge the tiles slide towards,
+ * so applying them in order never moves a tile onto a cell whose own tile
+ * has not left yet. A {@link Game} fills a list given to
+ * {@link Game#setChangeList} on every move; boards that change in other
+ * ways (a restore or a new game) are not described by a list.
+ */
+public final class MoveChanges {
+
+    /** A tile slid from one cell to another */
+    public static final int MOVE = 0;
+
+    /** A tile slid into another of the same value and the two became one */
+    public static final int MERGE = 1;
+
+    /** A new tile appeared */
+    public static final int SPAWN = 2;
+
+    private final int size;
+    private final int[] changes;
+    private final int[] line;
+    private int count;
+
+    /**
+     * Creates an empty list for a board size.
+     *
+     * @param size board size (4-6)
+     */
+    public MoveChanges(int size) {
+        this.size = size;
+        // At most one change per tile plus the spawn
+        this.changes = new int[size * size + 1];
+        this.line = new int[size];
+    }
+
+    /**
+     * Empties the list.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Replaces the list with the slides and merges of a move.
+     *
+     * @param before    the board before the move
+     * @param direction the direction of the move
+     */
+    public void recordSlide(PackedBoard before, Direction direction) {
+        count = 0;
+        for (int l = 0; l < size; l++) {
+            // Cells of the line, starting at the edge the tiles slide towards
+            for (int i = 0; i < size; i++) {
+                line[i] = switch (direction) {
+                    case LEFT -> l * size + i;
+                    case RIGHT -> l * size + size - 1 - i;
+                    case UP -> i * size + l;
+                    case DOWN -> (size - 1 - i) * size + l;
+                };
+            }
+            int slot = -1;
+            int slotExponent = 0;
+            boolean slotMerged = true;
+            for (int i = 0; i < size; i++) {
+                int cell = line[i];
+                int exponent = before.get(cell / size, cell % size);
+                if (exponent == 0) continue;
+                if (!slotMerged && exponent == slotExponent && exponent < Bitboard.MAX_EXPONENT) {
+                    add(MERGE, cell, line[slot], exponent + 1);
+                    slotMerged = true;
+                } else {
+                    slot++;
+                    slotExponent = exponent;
+                    slotMerged = false;
+                    if (line[slot] != cell) {
+                        add(MOVE, cell, line[slot], exponent);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the tile spawned after the move.
+     *
+     * @param cell     index {@code row * size + col} of the new tile
+     * @param exponent exponent of the new tile
+     */
+    public void addSpawn(int cell, int exponent) {
+        add(SPAWN, cell, cell, exponent);
+    }
+
+    /**
+     * @return number of changes
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param i position in the list
+     * @return {@link #MOVE}, {@link #MERGE} or {@link #SPAWN}
+     */
+    public int kind(int i) {
+        return changes[i] >>> 16;
+    }
+
+    /**
+     * @param i position in the list
+     * @return cell the tile came from; the new tile's cell for a spawn
+     */
+    public int from(int i) {
+        return (changes[i] >>> 10) & 0x3F;
+    }
+
+    /**
+     * @param i position in the list
+     * @return cell the tile ended in
+     */
+    public int to(int i) {
+        return (changes[i] >>> 4) & 0x3F;
+    }
+
+    /**
+     * @param i position in the list
+     * @return exponent of the tile in its final cell; the merged exponent for a merge
+     */
+    public int exponent(int i) {
+        return changes[i] & 0xF;
+    }
+
+    /**
+     * @return bit {@code row * size + col} set for every cell a change left or reached
+     */
+    public long touchedMask() {
+        long mask = 0;
+        for (int i = 0; i < count; i++) {
+            mask |= (1L << from(i)) | (1L << to(i));
+        }
+        return mask;
+    }
+
+    private void add(int kind, int from, int to, int exponent) {
+        changes[count++] = kind << 16 | from << 10 | to << 4 | exponent;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.engine;
+
+/**
+ * Receives every move made through {@link Game#move} together with the tile
+ * it spawned. Called on the thread that made the move.
+ */
+@FunctionalInterface
+public interface MoveListener {
+
+    /**
+     * Called after a move has been applied and its tile spawned.
+     *
+     * @param direction     the direction that was moved
+     * @param spawnCell     index {@code row * size + col} of the spawned tile
+     * @param spawnExponent exponent of the spawned tile (1 or 2)
+     */
+    void moved(Direction direction, int spawnCell, int spawnExponent);
+}
@@ -0,0 +1,332 @@
+package com.example.demo.engine;
+
+import java.util.Arrays;
+
+/**
+ * Mutable n x n board (4 &le; n &le; 6) packed into a {@code long[]} of 4-bit
+ * tile exponents.
+ * <p>
+ * Rows are kept whole inside a word so they can be slid with a single
+ * {@link RowTable} lookup: a word holds {@code 64 / (4 * n)} rows, row r being
+ * stored in word {@code r / rowsPerWord}. A 4x4 board therefore fits in one
+ * word with exactly the {@link Bitboard} layout, a 5x5 board takes two words
+ * (three rows each) and a 6x6 board takes three words (two rows each).
+ * <p>
+ * A mask of the empty cells (bit {@code row * n + col}) is kept up to date by
+ * every change, so the empty count is a popcount and a spawn position is
+ * chosen by selecting the k-th set bit. 4x4 moves are delegated to
+ * {@link Bitboard}.
+ */
+public final class PackedBoard {
+
+    /** Smallest supported board size */
+    public static final int MIN_SIZE = 4;
+
+    /** Largest supported board size */
+    public static final int MAX_SIZE = RowTable.MAX_WIDE_CELLS;
+
+    private final int n;
+    private final int rowBits;
+    private final int rowMask;
+    private final int rowsPerWord;
+    private final long[] words;
+    private long emptyMask;
+
+    /**
+     * Creates an empty board.
+     *
+     * @param n number of rows and columns (4-6)
+     * @throws IllegalArgumentException if the size is not supported
+     */
+    public PackedBoard(int n) {
+        if (n < MIN_SIZE || n > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + n);
+        }
+        this.n = n;
+        this.rowBits = 4 * n;
+        this.rowMask = (1 << rowBits) - 1;
+        this.rowsPerWord = 64 / rowBits;
+        this.words = new long[(n + rowsPerWord - 1) / rowsPerWord];
+        this.emptyMask = (1L << (n * n)) - 1;
+    }
+
+    /**
+     * Creates a copy of another board.
+     *
+     * @param other the board to copy
+     */
+    public PackedBoard(PackedBoard other) {
+        this(other.n);
+        copyFrom(other);
+    }
+
+    /**
+     * @return number of rows and columns
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return number of cells on the board
+     */
+    public int cellCount() {
+        return n * n;
+    }
+
+    /**
+     * Overwrites this board with the contents of another board of the same size.
+     *
+     * @param other the board to copy
+     */
+    public void copyFrom(PackedBoard other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+        emptyMask = other.emptyMask;
+    }
+
+    /**
+     * Empties every cell.
+     */
+    public void clear() {
+        Arrays.fill(words, 0);
+        emptyMask = (1L << (n * n)) - 1;
+    }
+
+    /**
+     * @return number of words used by the packed representation
+     */
+    public int wordCount() {
+        return words.length;
+    }
+
+    /**
+     * Returns one raw word of the packed representation.
+     *
+     * @param index word index
+     * @return the packed word
+     */
+    public long word(int index) {
+        return words[index];
+    }
+
+    /**
+     * Replaces one raw word of the packed representation.
+     *
+     * @param index word index
+     * @param value the packed word
+     */
+    public void setWord(int index, long value) {
+        words[index] = value;
+        refreshEmpty(index);
+    }
+
+    /**
+     * Returns the exponent of the tile at the given position.
+     *
+     * @param row row index
+     * @param col column index
+     * @return the tile exponent, 0 if the cell is empty
+     */
+    public int get(int row, int col) {
+        return (row(row) >>> (4 * col)) & 0xF;
+    }
+
+    /**
+     * Sets the exponent of the tile at the given position.
+     *
+     * @param row      row index
+     * @param col      column index
+     * @param exponent the tile exponent (0-15)
+     */
+    public void set(int row, int col, int exponent) {
+        int shift = shiftOf(row) + 4 * col;
+        int word = row / rowsPerWord;
+        words[word] = (words[word] & ~(0xFL << shift)) | ((long) exponent << shift);
+        long bit = 1L << (row * n + col);
+        emptyMask = exponent == 0 ? emptyMask | bit : emptyMask & ~bit;
+    }
+
+    /**
+     * Returns a packed row with column 0 in the lowest nibble.
+     *
+     * @param row row index
+     * @return the packed row
+     */
+    public int row(int row) {
+        return (int) (words[row / rowsPerWord] >>> shiftOf(row)) & rowMask;
+    }
+
+    /**
+     * Replaces a packed row.
+     *
+     * @param row    row index
+     * @param packed the packed row with column 0 in the lowest nibble
+     */
+    public void setRow(int row, int packed) {
+        int shift = shiftOf(row);
+        int word = row / rowsPerWord;
+        words[word] = (words[word] & ~((long) rowMask << shift)) | ((long) packed << shift);
+        refreshEmpty(word);
+    }
+
+    /**
+     * Returns a packed column with row 0 in the lowest nibble.
+     *
+     * @param col column index
+     * @return the packed column
+     */
+    public int column(int col) {
+        int packed = 0;
+        for (int r = 0; r < n; r++) {
+            packed |= get(r, col) << (4 * r);
+        }
+        return packed;
+    }
+
+    /**
+     * Replaces a packed column.
+     *
+     * @param col    column index
+     * @param packed the packed column with row 0 in the lowest nibble
+     */
+    public void setColumn(int col, int packed) {
+        for (int r = 0; r < n; r++) {
+            set(r, col, (packed >>> (4 * r)) & 0xF);
+        }
+    }
+
+    /**
+     * Mirrors a packed row or column so its last cell comes first.
+     *
+     * @param line  the packed line (4 bits per cell)
+     * @param cells number of cells in the line (at most {@value #MAX_SIZE})
+     * @return the mirrored line
+     */
+    public static int reverseLine(int line, int cells) {
+        return RowTable.reverseWide(line, cells);
+    }
+
+    /**
+     * Slides and merges all tiles in the given direction.
+     *
+     * @param direction the direction to move
+     * @return the score gained, or -1 if no tile moved
+     */
+    public int move(Direction direction) {
+        if (n == Bitboard.SIZE) {
+            long before = words[0];
+            long after = Bitboard.move(before, direction);
+            if (after == before) return -1;
+            words[0] = after;
+            emptyMask = ~Bitboard.occupiedCells(after) & 0xFFFFL;
+            return Bitboard.moveScore(before, direction);
+        }
+
+        boolean horizontal = direction == Direction.LEFT || direction == Direction.RIGHT;
+        boolean towardsStart = direction == Direction.LEFT || direction == Direction.UP;
+        boolean moved = false;
+        int score = 0;
+        for (int i = 0; i < n; i++) {
+            int line = horizontal ? row(i) : column(i);
+            long slid = towardsStart ? RowTable.slideWideLeft(line) : RowTable.slideWideRight(line, n);
+            int result = (int) slid;
+            if (result != line) {
+                moved = true;
+                score += (int) (slid >>> 32);
+                if (horizontal) setRow(i, result);
+                else setColumn(i, result);
+            }
+        }
+        return moved ? score : -1;
+    }
+
+    /**
+     * Checks whether any move changes the board, without modifying it.
+     *
+     * @return {@code true} if at least one direction is legal
+     */
+    public boolean canMove() {
+        if (n == Bitboard.SIZE) return Bitboard.canMove(words[0]);
+        for (int i = 0; i < n; i++) {
+            if (lineCanMove(row(i)) || lineCanMove(column(i))) return true;
+        }
+        return false;
+    }
+
+    private boolean lineCanMove(int line) {
+        return (int) RowTable.slideWideLeft(line) != line || (int) RowTable.slideWideRight(line, n) != line;
+    }
+
+    /**
+     * Counts the empty cells.
+     *
+     * @return number of empty cells
+     */
+    public int countEmpty() {
+        return Long.bitCount(emptyMask);
+    }
+
+    /**
+     * Returns the empty cells as a bit mask.
+     *
+     * @return bit {@code row * n + col} set for every empty cell
+     */
+    public long emptyMask() {
+        return emptyMask;
+    }
+
+    /**
+     * Returns the cells whose tiles differ from another board of the same size.
+     *
+     * @param other the board to compare with
+     * @return bit {@code row * n + col} set for every differing cell
+     */
+    public long diffMask(PackedBoard other) {
+        long mask = 0;
+        for (int w = 0; w < words.length; w++) {
+            mask |= (long) Bitboard.occupiedCells(words[w] ^ other.words[w]) << (w * rowsPerWord * n);
+        }
+        return mask;
+    }
+
+    /**
+     * Recomputes the empty bits of the cells stored in one word.
+     */
+    private void refreshEmpty(int word) {
+        int firstCell = word * rowsPerWord * n;
+        int cells = Math.min(rowsPerWord, n - word * rowsPerWord) * n;
+        long wordCells = ((1L << cells) - 1) << firstCell;
+        long empty = (~(long) Bitboard.occupiedCells(words[word]) << firstCell) & wordCells;
+        emptyMask = (emptyMask & ~wordCells) | empty;
+    }
+
+    /**
+     * Returns the largest exponent on the board.
+     *
+     * @return the maximum tile exponent, 0 for an empty board
+     */
+    public int maxExponent() {
+        int max = 0;
+        for (long word : words) {
+            max = Math.max(max, Bitboard.maxExponent(word));
+        }
+        return max;
+    }
+
+    private int shiftOf(int row) {
+        return (row % rowsPerWord) * rowBits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PackedBoard)) return false;
+        PackedBoard other = (PackedBoard) o;
+        return n == other.n && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
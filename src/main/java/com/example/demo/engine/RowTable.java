@@ -0,0 +1,203 @@
+package com.example.demo.engine;
+
+/**
+ * Precomputed slide results for packed board rows, built once when the class
+ * is first loaded.
+ * <p>
+ * Rows are sequences of 4-bit tile exponents with cell 0 in the lowest nibble;
+ * "left" means towards cell 0.
+ * <ul>
+ *   <li>4-cell rows (16 bits) are looked up directly: every possible row has its
+ *       slid result and gained score for both horizontal directions.</li>
+ *   <li>5- and 6-cell rows are too large for a direct table, so they are slid in
+ *       3-cell chunks. A merge can only involve the last tile carried over from
+ *       the previous chunk, so a table indexed by (carried tile, chunk) holds the
+ *       tiles the chunk emits, the new carried tile and the score. Any row of up
+ *       to six cells therefore takes exactly two lookups.</li>
+ * </ul>
+ * Every lookup costs the same regardless of how the tiles are arranged.
+ */
+final class RowTable {
+
+    /** Largest row length supported by the chunked tables */
+    static final int MAX_WIDE_CELLS = 6;
+
+    private static final int ROWS = 1 << 16;
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    private static final char[] LEFT = new char[ROWS];
+    private static final char[] RIGHT = new char[ROWS];
+    private static final int[] LEFT_SCORE = new int[ROWS];
+    private static final int[] RIGHT_SCORE = new int[ROWS];
+
+    /** Chunk transitions: emitted tiles (12 bits) | emitted count (2 bits) | new carried tile (4 bits) */
+    private static final int[] CHUNK = new int[16 << CHUNK_BITS];
+    private static final int[] CHUNK_SCORE = new int[16 << CHUNK_BITS];
+    private static final short[] REVERSE_CHUNK = new short[1 << CHUNK_BITS];
+
+    static {
+        for (int row = 0; row < ROWS; row++) {
+            long left = slideLeft(row, Bitboard.SIZE);
+            LEFT[row] = (char) left;
+            LEFT_SCORE[row] = (int) (left >>> 32);
+        }
+        for (int row = 0; row < ROWS; row++) {
+            int reversed = reverse(row, Bitboard.SIZE);
+            RIGHT[row] = (char) reverse(LEFT[reversed], Bitboard.SIZE);
+            RIGHT_SCORE[row] = LEFT_SCORE[reversed];
+        }
+        for (int chunk = 0; chunk <= CHUNK_MASK; chunk++) {
+            REVERSE_CHUNK[chunk] = (short) reverse(chunk, 3);
+            for (int carried = 0; carried < 16; carried++) {
+                buildChunk(carried, chunk);
+            }
+        }
+    }
+
+    private RowTable() {
+        // Utility class
+    }
+
+    /**
+     * Slides a 4-cell row towards cell 0.
+     *
+     * @param row the packed 16-bit row
+     * @return the slid row
+     */
+    static int left(int row) {
+        return LEFT[row];
+    }
+
+    /**
+     * Slides a 4-cell row towards cell 3.
+     *
+     * @param row the packed 16-bit row
+     * @return the slid row
+     */
+    static int right(int row) {
+        return RIGHT[row];
+    }
+
+    /**
+     * @param row the packed 16-bit row
+     * @return score gained by sliding the row towards cell 0
+     */
+    static int leftScore(int row) {
+        return LEFT_SCORE[row];
+    }
+
+    /**
+     * @param row the packed 16-bit row
+     * @return score gained by sliding the row towards cell 3
+     */
+    static int rightScore(int row) {
+        return RIGHT_SCORE[row];
+    }
+
+    /**
+     * Slides a row of up to six cells towards cell 0 using the chunk table.
+     *
+     * @param row the packed row (4 bits per cell, unused high cells zero)
+     * @return the slid row in the low 32 bits and the gained score above them
+     */
+    static long slideWideLeft(int row) {
+        int key = row & CHUNK_MASK;
+        int first = CHUNK[key];
+        long score = CHUNK_SCORE[key];
+
+        key = (first >>> 14 << CHUNK_BITS) | ((row >>> CHUNK_BITS) & CHUNK_MASK);
+        int second = CHUNK[key];
+        score += CHUNK_SCORE[key];
+
+        int emitted = (first >>> 12) & 3;
+        int result = (first & CHUNK_MASK) | ((second & CHUNK_MASK) << (4 * emitted));
+        emitted += (second >>> 12) & 3;
+        result |= (second >>> 14) << (4 * emitted);
+        return (score << 32) | (result & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Slides a row of up to six cells towards its last cell.
+     *
+     * @param row   the packed row (4 bits per cell)
+     * @param cells number of cells in the row (at most {@value #MAX_WIDE_CELLS})
+     * @return the slid row in the low 32 bits and the gained score above them
+     */
+    static long slideWideRight(int row, int cells) {
+        long left = slideWideLeft(reverseWide(row, cells));
+        return (left & 0xFFFFFFFF00000000L) | reverseWide((int) left, cells);
+    }
+
+    /**
+     * Mirrors a row of up to six cells.
+     *
+     * @param row   the packed row (4 bits per cell)
+     * @param cells number of cells in the row
+     * @return the mirrored row
+     */
+    static int reverseWide(int row, int cells) {
+        int reversed = (REVERSE_CHUNK[row & CHUNK_MASK] << CHUNK_BITS)
+                | REVERSE_CHUNK[(row >>> CHUNK_BITS) & CHUNK_MASK];
+        return reversed >>> (4 * (MAX_WIDE_CELLS - cells));
+    }
+
+    /**
+     * Fills the chunk table entry for one carried tile and one 3-cell chunk.
+     */
+    private static void buildChunk(int carriedIn, int chunk) {
+        int carried = carriedIn;
+        int emitted = 0;
+        int count = 0;
+        int score = 0;
+        for (int c = 0; c < 3; c++) {
+            int tile = (chunk >>> (4 * c)) & 0xF;
+            if (tile == 0) continue;
+            if (carried == tile && tile < Bitboard.MAX_EXPONENT) {
+                emitted |= (tile + 1) << (4 * count++);
+                score += 1 << (tile + 1);
+                carried = 0;
+            } else {
+                if (carried != 0) emitted |= carried << (4 * count++);
+                carried = tile;
+            }
+        }
+        int key = (carriedIn << CHUNK_BITS) | chunk;
+        CHUNK[key] = emitted | (count << 12) | (carried << 14);
+        CHUNK_SCORE[key] = score;
+    }
+
+    /**
+     * Reference slide used to build the direct tables.
+     *
+     * @return the slid row in the low 32 bits and the gained score above them
+     */
+    private static long slideLeft(int row, int cells) {
+        int result = 0;
+        int target = 0;
+        int pending = 0;
+        long score = 0;
+        for (int c = 0; c < cells; c++) {
+            int tile = (row >>> (4 * c)) & 0xF;
+            if (tile == 0) continue;
+            if (pending == tile && tile < Bitboard.MAX_EXPONENT) {
+                result |= (tile + 1) << (4 * target++);
+                score += 1L << (tile + 1);
+                pending = 0;
+            } else {
+                if (pending != 0) result |= pending << (4 * target++);
+                pending = tile;
+            }
+        }
+        if (pending != 0) result |= pending << (4 * target);
+        return (score << 32) | result;
+    }
+
+    private static int reverse(int row, int cells) {
+        int reversed = 0;
+        for (int c = 0; c < cells; c++) {
+            reversed |= ((row >>> (4 * c)) & 0xF) << (4 * (cells - 1 - c));
+        }
+        return reversed;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.engine;
+
+/**
+ * The four boards reachable from one position, with their score gains.
+ * <p>
+ * Computing them ahead of time, while the player is still deciding, turns a
+ * move into copying a finished board, and gives the set of legal directions
+ * without any further sliding. The boards are preallocated and reused.
+ */
+public final class Successors {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final PackedBoard[] boards;
+    private final int[] gains = new int[DIRECTIONS.length];
+    private int legalMask;
+
+    /**
+     * Creates an empty successor set for one board size.
+     *
+     * @param size number of rows and columns (4-6)
+     */
+    public Successors(int size) {
+        boards = new PackedBoard[DIRECTIONS.length];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new PackedBoard(size);
+        }
+    }
+
+    /**
+     * Slides a board in all four directions and keeps the results.
+     *
+     * @param board the position to expand; not modified
+     */
+    public void compute(PackedBoard board) {
+        legalMask = 0;
+        for (Direction direction : DIRECTIONS) {
+            PackedBoard after = boards[direction.code()];
+            after.copyFrom(board);
+            int gained = after.move(direction);
+            gains[direction.code()] = gained;
+            if (gained >= 0) legalMask |= 1 << direction.code();
+        }
+    }
+
+    /**
+     * @return bit {@link Direction#code()} set for every legal direction
+     */
+    public int legalMask() {
+        return legalMask;
+    }
+
+    /**
+     * @param direction the direction to check
+     * @return {@code true} if the move changes the board
+     */
+    public boolean isLegal(Direction direction) {
+        return (legalMask & (1 << direction.code())) != 0;
+    }
+
+    /**
+     * Returns the board after a move; meaningful only for legal directions.
+     *
+     * @param direction the move
+     * @return the successor board, owned by this object
+     */
+    public PackedBoard board(Direction direction) {
+        return boards[direction.code()];
+    }
+
+    /**
+     * @param direction the move
+     * @return the score the move gains, or -1 if it is not legal
+     */
+    public int gain(Direction direction) {
+        return gains[direction.code()];
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.engine;
+
+/**
+ * Record of past positions that moves can be undone to.
+ * <p>
+ * The caller records each move with the board before and after it, and undo
+ * or redo then rewrites a board it passes in. Implementations reuse their
+ * storage, so recording a move does not allocate per move.
+ */
+public interface UndoHistory {
+
+    /**
+     * Records a move that has just been made. Any undone moves that could
+     * have been redone are discarded.
+     *
+     * @param before      the board before the move
+     * @param scoreBefore the score before the move
+     * @param after       the board after the move, including the spawned tile
+     * @param scoreAfter  the score after the move
+     */
+    void record(PackedBoard before, long scoreBefore, PackedBoard after, long scoreAfter);
+
+    /**
+     * @return {@code true} if there is a move to undo
+     */
+    boolean canUndo();
+
+    /**
+     * @return {@code true} if there is an undone move to redo
+     */
+    boolean canRedo();
+
+    /**
+     * Turns the current board back into the board before the last move.
+     *
+     * @param board the current board; overwritten with the previous one
+     * @return the score before the last move
+     * @throws IllegalStateException if there is nothing to undo
+     */
+    long undo(PackedBoard board);
+
+    /**
+     * Turns the current board into the board after the last undone move.
+     *
+     * @param board the current board; overwritten with the next one
+     * @return the score after that move
+     * @throws IllegalStateException if there is nothing to redo
+     */
+    long redo(PackedBoard board);
+
+    /**
+     * Forgets all recorded moves.
+     */
+    void clear();
+}
@@ -0,0 +1,119 @@
+package com.example.demo.engine;
+
+import java.util.Arrays;
+
+/**
+ * Unlimited undo and redo history that stores only what each move changed.
+ * <p>
+ * A move is kept as the list of cells it changed, each packed into one int
+ * (cell index, old exponent, new exponent), plus the score before the move
+ * and the score gained. A typical move changes a handful of cells, so a long
+ * game costs a few tens of bytes per move, and undo or redo rewrites only
+ * those cells. The arrays grow by doubling when full.
+ */
+public final class UndoLog implements UndoHistory {
+
+    private final int size;
+    private int[] changes = new int[256];
+    private int[] moveStarts = new int[64];
+    private long[] scoresBefore = new long[64];
+    private int[] gains = new int[64];
+    private int moves;
+    private int cursor;
+
+    /**
+     * Creates an empty log.
+     *
+     * @param size board size (4-6)
+     */
+    public UndoLog(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public void record(PackedBoard before, long scoreBefore, PackedBoard after, long scoreAfter) {
+        // Recording after an undo drops the moves that could have been redone
+        moves = cursor;
+        if (moves + 1 >= moveStarts.length) {
+            int capacity = moveStarts.length * 2;
+            moveStarts = Arrays.copyOf(moveStarts, capacity);
+            scoresBefore = Arrays.copyOf(scoresBefore, capacity);
+            gains = Arrays.copyOf(gains, capacity);
+        }
+
+        long changed = before.diffMask(after);
+        int start = moveStarts[moves];
+        int end = start + Long.bitCount(changed);
+        if (end > changes.length) {
+            changes = Arrays.copyOf(changes, Math.max(changes.length * 2, end));
+        }
+        int i = start;
+        for (; changed != 0; changed &= changed - 1) {
+            int cell = Long.numberOfTrailingZeros(changed);
+            int row = cell / size;
+            int col = cell % size;
+            changes[i++] = cell << 8 | before.get(row, col) << 4 | after.get(row, col);
+        }
+
+        scoresBefore[moves] = scoreBefore;
+        gains[moves] = (int) (scoreAfter - scoreBefore);
+        moves++;
+        moveStarts[moves] = end;
+        cursor = moves;
+    }
+
+    @Override
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    @Override
+    public boolean canRedo() {
+        return cursor < moves;
+    }
+
+    @Override
+    public long undo(PackedBoard board) {
+        if (cursor == 0) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        cursor--;
+        apply(board, cursor, 4);
+        return scoresBefore[cursor];
+    }
+
+    @Override
+    public long redo(PackedBoard board) {
+        if (cursor == moves) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        apply(board, cursor, 0);
+        cursor++;
+        return scoresBefore[cursor - 1] + gains[cursor - 1];
+    }
+
+    @Override
+    public void clear() {
+        moves = 0;
+        cursor = 0;
+    }
+
+    /**
+     * @return number of moves recorded, including undone ones
+     */
+    public int size() {
+        return moves;
+    }
+
+    /**
+     * Writes the old or new exponents of one move's changed cells.
+     *
+     * @param shift 4 to restore the old exponents, 0 for the new ones
+     */
+    private void apply(PackedBoard board, int move, int shift) {
+        for (int i = moveStarts[move]; i < moveStarts[move + 1]; i++) {
+            int cell = changes[i] >>> 8;
+            board.set(cell / size, cell % size, (changes[i] >>> shift) & 0xF);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.engine;
+
+/**
+ * Bounded undo history kept in a preallocated ring buffer.
+ * <p>
+ * Each slot holds the packed words of one board and its score, in primitive
+ * arrays allocated once. When the ring is full the oldest slot is overwritten
+ * in place, so nothing is shifted or allocated as the game goes on. Redo is
+ * not supported.
+ */
+public final class UndoRing implements UndoHistory {
+
+    private final int wordCount;
+    private final long[] words;
+    private final long[] scores;
+    private int head;
+    private int count;
+
+    /**
+     * Creates an empty ring.
+     *
+     * @param size     board size (4-6)
+     * @param capacity number of moves that can be undone
+     */
+    public UndoRing(int size, int capacity) {
+        this.wordCount = new PackedBoard(size).wordCount();
+        this.words = new long[capacity * wordCount];
+        this.scores = new long[capacity];
+    }
+
+    @Override
+    public void record(PackedBoard before, long scoreBefore, PackedBoard after, long scoreAfter) {
+        int base = head * wordCount;
+        for (int w = 0; w < wordCount; w++) {
+            words[base + w] = before.word(w);
+        }
+        scores[head] = scoreBefore;
+        head = (head + 1) % scores.length;
+        count = Math.min(count + 1, scores.length);
+    }
+
+    @Override
+    public boolean canUndo() {
+        return count > 0;
+    }
+
+    @Override
+    public boolean canRedo() {
+        return false;
+    }
+
+    @Override
+    public long undo(PackedBoard board) {
+        if (count == 0) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        head = (head + scores.length - 1) % scores.length;
+        count--;
+        int base = head * wordCount;
+        for (int w = 0; w < wordCount; w++) {
+            board.setWord(w, words[base + w]);
+        }
+        return scores[head];
+    }
+
+    @Override
+    public long redo(PackedBoard board) {
+        throw new IllegalStateException("Redo is not supported by a bounded history");
+    }
+
+    @Override
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Verifies many replays in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The range of replays is split recursively like the games of
+ * {@code BatchSimulator}; every worker thread keeps one
+ * {@link ReplayVerifier} for all the replays it checks, and each verdict is
+ * written to its own slot of the result array, so nothing is shared.
+ */
+public class BatchVerifier {
+
+    /** Largest number of replays a task verifies without splitting further */
+    private static final int REPLAYS_PER_TASK = 8;
+
+    private final int threads;
+    private long elapsedNanos;
+
+    /**
+     * Creates a batch verifier.
+     *
+     * @param threads number of worker threads
+     */
+    public BatchVerifier(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Verifies replay files. Any final score is accepted, so this checks that
+     * each game was played by the rules.
+     *
+     * @param files the replay files
+     * @return one verdict per file, in the same order
+     */
+    public ReplayVerifier.Verdict[] verifyFiles(List<Path> files) {
+        return run(files.size(), i -> ReplayReader.open(files.get(i)), i -> -1);
+    }
+
+    /**
+     * Verifies the games of an archive against the scores in its index.
+     *
+     * @param archive the archive; only read while verifying
+     * @return one verdict per archived game, oldest first
+     */
+    public ReplayVerifier.Verdict[] verifyArchive(ReplayArchive archive) {
+        ReplayArchive.Entry[] entries = new ReplayArchive.Entry[archive.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = archive.entry(i);
+        }
+        return run(entries.length, i -> archive.open(entries[i]), i -> entries[i].getScore());
+    }
+
+    /**
+     * @return wall-clock time of the last batch in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    private ReplayVerifier.Verdict[] run(int count, Opener opener, IntToLongFunction claimedScores) {
+        ReplayVerifier.Verdict[] verdicts = new ReplayVerifier.Verdict[count];
+        ThreadLocal<ReplayVerifier> verifiers = ThreadLocal.withInitial(ReplayVerifier::new);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            pool.invoke(new VerifyTask(0, count, opener, claimedScores, verifiers, verdicts));
+            elapsedNanos = System.nanoTime() - start;
+            return verdicts;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Opens the replay at a position of the batch.
+     */
+    @FunctionalInterface
+    private interface Opener {
+        ReplayReader open(int i) throws IOException;
+    }
+
+    private static final class VerifyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final Opener opener;
+        private final IntToLongFunction claimedScores;
+        private final ThreadLocal<ReplayVerifier> verifiers;
+        private final ReplayVerifier.Verdict[] verdicts;
+
+        VerifyTask(int from, int to, Opener opener, IntToLongFunction claimedScores,
+                   ThreadLocal<ReplayVerifier> verifiers, ReplayVerifier.Verdict[] verdicts) {
+            this.from = from;
+            this.to = to;
+            this.opener = opener;
+            this.claimedScores = claimedScores;
+            this.verifiers = verifiers;
+            this.verdicts = verdicts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > REPLAYS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new VerifyTask(from, mid, opener, claimedScores, verifiers, verdicts),
+                        new VerifyTask(mid, to, opener, claimedScores, verifiers, verdicts));
+                return;
+            }
+            ReplayVerifier verifier = verifiers.get();
+            for (int i = from; i < to; i++) {
+                try {
+                    verdicts[i] = verifier.verify(opener.open(i), claimedScores.applyAsLong(i));
+                } catch (IOException | RuntimeException e) {
+                    // One bad replay is recorded as a failure and the batch goes on
+                    verdicts[i] = new ReplayVerifier.Verdict(false, "Unreadable replay: " + e.getMessage(), 0, 0, 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.demo.replay;
+
+import com.example.demo.engine.Bitboard;
+import com.example.demo.engine.Game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Append-only store of many replays with an index of per-game metadata.
+ * <p>
+ * Replays are appended unchanged to one archive file. A separate index file
+ * holds a fixed-size record per game (player, board size, final score, max
+ * tile, move count, timestamp and where the replay sits in the archive). The
+ * metadata is worked out once, by playing the replay when it is added.
+ * <p>
+ * Both files are read through {@link FileChannel#map}. Queries read only the
+ * mapped index, never the replay bodies, and {@link #open(Entry)} decodes a
+ * replay straight from the mapped archive without copying it. The archive
+ * can grow to 2 GB. One thread at a time may append; other threads may
+ * read meanwhile and see the archive as it was before or after an append.
+ */
+public final class ReplayArchive implements Closeable {
+
+    private static final int MAGIC = 0x58444952; // "RIDX" in little-endian byte order
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 64;
+    private static final int PLAYER_BYTES = 28;
+
+    // Field offsets within an index record
+    private static final int OFFSET = 0;
+    private static final int LENGTH = 8;
+    private static final int SIZE = 12;
+    private static final int MAX_EXPONENT = 13;
+    private static final int SCORE = 16;
+    private static final int MOVES = 24;
+    private static final int TIMESTAMP = 28;
+    private static final int PLAYER = 36;
+
+    private final FileChannel archive;
+    private final FileChannel index;
+    // Replaced, never changed, by each append; count is written last so a reader that sees it sees the maps
+    private volatile MappedByteBuffer archiveMap;
+    private volatile MappedByteBuffer indexMap;
+    private volatile int count;
+
+    private ReplayArchive(FileChannel archive, FileChannel index) {
+        this.archive = archive;
+        this.index = index;
+    }
+
+    /**
+     * Opens an archive, creating its files if they do not exist.
+     *
+     * @param archiveFile file holding the replays
+     * @param indexFile   file holding the metadata index
+     * @return the open archive
+     * @throws IOException if the files cannot be opened or the index is not valid
+     */
+    public static ReplayArchive open(Path archiveFile, Path indexFile) throws IOException {
+        FileChannel archive = FileChannel.open(archiveFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel index;
+        try {
+            index = FileChannel.open(indexFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            archive.close();
+            throw e;
+        }
+        ReplayArchive result = new ReplayArchive(archive, index);
+        try {
+            if (index.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0).flip();
+                writeFully(index, header, 0);
+            }
+            result.remap();
+            if (result.indexMap.getInt(0) != MAGIC || result.indexMap.getInt(4) != VERSION
+                    || result.indexMap.getInt(8) != RECORD_BYTES) {
+                throw new IOException("Not a replay index: " + indexFile);
+            }
+        } catch (IOException e) {
+            result.close();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Adds a finished replay file to the archive. The replay is played once
+     * to work out its final score, max tile and move count.
+     *
+     * @param replayFile the replay to add; left in place
+     * @param player     name of the player, cut to 28 bytes
+     * @param timestamp  when the game was played, in epoch milliseconds
+     * @return the index entry of the added game
+     * @throws IOException if the replay cannot be read or the archive written
+     */
+    public Entry append(Path replayFile, String player, long timestamp) throws IOException {
+        byte[] bytes = Files.readAllBytes(replayFile);
+        ReplayReader reader;
+        try {
+            reader = ReplayReader.wrap(ByteBuffer.wrap(bytes));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + ": " + replayFile, e);
+        }
+        long offset = archive.size();
+        if (offset + bytes.length > Integer.MAX_VALUE) {
+            throw new IOException("Replay archive is full");
+        }
+
+        Game game = new Game(reader.size(), reader.seed());
+        int moves = 0;
+        try {
+            reader.seek(0, game);
+            while (reader.next()) {
+                reader.applyTo(game);
+                if (reader.kind() == ReplayReader.MOVE) moves++;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + ": " + replayFile, e);
+        }
+
+        // The body goes in first, so a failure never leaves an index record without one
+        writeFully(archive, ByteBuffer.wrap(bytes), offset);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        record.putLong(OFFSET, offset)
+                .putInt(LENGTH, bytes.length)
+                .put(SIZE, (byte) reader.size())
+                .put(MAX_EXPONENT, (byte) game.getMaxExponent())
+                .putLong(SCORE, game.getScore())
+                .putInt(MOVES, moves)
+                .putLong(TIMESTAMP, timestamp);
+        byte[] name = player.getBytes(StandardCharsets.UTF_8);
+        record.put(PLAYER, name, 0, Math.min(name.length, PLAYER_BYTES));
+        writeFully(index, record, HEADER_BYTES + (long) count * RECORD_BYTES);
+        remap();
+        return entry(count - 1);
+    }
+
+    /**
+     * @return number of games in the archive
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Reads the index entry of one game.
+     *
+     * @param i position of the game, 0 for the oldest
+     * @return the entry
+     */
+    public Entry entry(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("No archived game " + i);
+        }
+        return new Entry(i);
+    }
+
+    /**
+     * Returns the highest-scoring games on one board size.
+     *
+     * @param boardSize board size to look at, or 0 for all sizes
+     * @param limit     maximum number of games to return
+     * @return the games, best first
+     */
+    public List<Entry> topScores(int boardSize, int limit) {
+        // Min-heap of the best positions seen so far, weakest on top
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.comparingLong(this::score));
+        for (int i = 0; i < count && limit > 0; i++) {
+            if (boardSize != 0 && size(i) != boardSize) continue;
+            if (best.size() < limit) {
+                best.add(i);
+            } else if (score(i) > score(best.peek())) {
+                best.poll();
+                best.add(i);
+            }
+        }
+        List<Entry> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(new Entry(best.poll()));
+        }
+        result.sort(Comparator.comparingLong(Entry::getScore).reversed());
+        return result;
+    }
+
+    /**
+     * Returns the games whose largest tile reached a value.
+     *
+     * @param tile tile value, e.g. 4096
+     * @return the games, oldest first
+     */
+    public List<Entry> reachedTile(int tile) {
+        int exponent = Integer.numberOfTrailingZeros(tile);
+        List<Entry> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (indexMap.get(recordAt(i) + MAX_EXPONENT) >= exponent) {
+                result.add(new Entry(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the games of one player.
+     *
+     * @param player the player's name
+     * @return the games, oldest first
+     */
+    public List<Entry> byPlayer(String player) {
+        List<Entry> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Entry entry = new Entry(i);
+            if (entry.getPlayer().equals(player)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Opens the replay of an archived game, reading it from the mapped archive.
+     *
+     * @param entry the game
+     * @return a reader positioned before the first record
+     */
+    public ReplayReader open(Entry entry) {
+        return ReplayReader.wrap(archiveMap.slice((int) entry.offset, entry.length));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            archive.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    private void remap() throws IOException {
+        long archiveBytes = archive.size();
+        archiveMap = archive.map(FileChannel.MapMode.READ_ONLY, 0, archiveBytes);
+        long indexBytes = index.size();
+        MappedByteBuffer newIndexMap = index.map(FileChannel.MapMode.READ_ONLY, 0, indexBytes);
+        newIndexMap.order(ByteOrder.LITTLE_ENDIAN);
+        indexMap = newIndexMap;
+        // A record cut short by a crash is ignored and overwritten by the next append
+        count = (int) ((indexBytes - HEADER_BYTES) / RECORD_BYTES);
+    }
+
+    private static int recordAt(int i) {
+        return HEADER_BYTES + i * RECORD_BYTES;
+    }
+
+    private long score(int i) {
+        return indexMap.getLong(recordAt(i) + SCORE);
+    }
+
+    private int size(int i) {
+        return indexMap.get(recordAt(i) + SIZE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Metadata of one archived game, read from the index.
+     */
+    public final class Entry {
+        private final int position;
+        private final long offset;
+        private final int length;
+
+        private Entry(int position) {
+            this.position = position;
+            int at = recordAt(position);
+            this.offset = indexMap.getLong(at + OFFSET);
+            this.length = indexMap.getInt(at + LENGTH);
+        }
+
+        /**
+         * @return position of the game in the archive, 0 for the oldest
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * @return name of the player
+         */
+        public String getPlayer() {
+            byte[] name = new byte[PLAYER_BYTES];
+            indexMap.get(recordAt(position) + PLAYER, name);
+            int end = 0;
+            while (end < name.length && name[end] != 0) end++;
+            return new String(name, 0, end, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return number of rows and columns of the board
+         */
+        public int getBoardSize() {
+            return size(position);
+        }
+
+        /**
+         * @return final score
+         */
+        public long getScore() {
+            return score(position);
+        }
+
+        /**
+         * @return value of the largest tile reached
+         */
+        public int getMaxTile() {
+            return Bitboard.tileValue(indexMap.get(recordAt(position) + MAX_EXPONENT));
+        }
+
+        /**
+         * @return number of moves played
+         */
+        public int getMoves() {
+            return indexMap.getInt(recordAt(position) + MOVES);
+        }
+
+        /**
+         * @return when the game was played, in epoch milliseconds
+         */
+        public long getTimestamp() {
+            return indexMap.getLong(recordAt(position) + TIMESTAMP);
+        }
+
+        @Override
+        public String toString() {
+            int n = getBoardSize();
+            return n + "x" + n + "  " + getScore() + "  " + getMaxTile() + "  " + getPlayer();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.demo.replay;
+
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.Game;
+import com.example.demo.engine.PackedBoard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Decodes a replay written by {@link ReplayWriter}.
+ * <p>
+ * The records are read one at a time with {@link #next()}; the accessors
+ * then describe the current record, and {@link #applyTo(Game)} plays it on a
+ * game. Decoding only reads from the buffer and does not allocate, so a
+ * replay can be scanned at millions of moves per second.
+ * <p>
+ * A step is a move or a restore; step 0 is the position with the starting
+ * tiles. {@link #seek(int, Game)} puts a game at any step by loading the
+ * nearest keyframe at or before it and replaying the rest of that interval.
+ * The keyframes are found through the index at the end of the file, or by
+ * scanning the records once if the file has no index: a file that is still
+ * being written, or one that ends in the middle of a record, reads up to its
+ * last complete record.
+ */
+public final class ReplayReader {
+
+    /** A move and the tile it spawned */
+    public static final int MOVE = 0;
+
+    /** One of the starting tiles */
+    public static final int SPAWN = 1;
+
+    /** The board and score were replaced, by undo or redo */
+    public static final int RESTORE = 2;
+
+    /** The full board and score, written periodically for seeking */
+    public static final int KEYFRAME = 3;
+
+    private final ByteBuffer data;
+    private final int size;
+    private final long seed;
+    private final int wordCount;
+    private final int firstRecord;
+    private final PackedBoard scratch;
+    private int end;
+    private int[] keyframeSteps = new int[0];
+    private int[] keyframeOffsets = new int[0];
+    private int stepCount;
+    private int record;
+    private int boardAt;
+    private int step;
+
+    private ReplayReader(ByteBuffer data) {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.remaining() < ReplayWriter.HEADER_BYTES || data.getInt() != ReplayWriter.MAGIC) {
+            throw new IllegalArgumentException("Not a replay");
+        }
+        int version = data.get();
+        if (version < 1 || version > ReplayWriter.VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version: " + version);
+        }
+        this.size = data.get();
+        if (size < PackedBoard.MIN_SIZE || size > PackedBoard.MAX_SIZE) {
+            throw new IllegalArgumentException("Corrupt replay header, board size " + size);
+        }
+        this.seed = data.getLong();
+        this.scratch = new PackedBoard(size);
+        this.wordCount = scratch.wordCount();
+        this.firstRecord = data.position();
+        this.end = data.limit();
+        if (!readIndex()) {
+            scanIndex();
+        }
+        rewind();
+    }
+
+    /**
+     * Reads a whole replay file.
+     *
+     * @param file the replay file
+     * @return a reader positioned before the first record
+     * @throws IOException if the file cannot be read or is not a replay
+     */
+    public static ReplayReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            return wrap(data.flip());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + ": " + file, e);
+        }
+    }
+
+    /**
+     * Reads a replay held in memory.
+     *
+     * @param data the replay bytes, from the header on; the buffer's position is advanced
+     * @return a reader positioned before the first record
+     * @throws IllegalArgumentException if the data is not a replay
+     */
+    public static ReplayReader wrap(ByteBuffer data) {
+        return new ReplayReader(data);
+    }
+
+    /**
+     * @return board size of the recorded game
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return seed the recorded game was started with
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return number of steps (moves and restores) in the replay
+     */
+    public int stepCount() {
+        return stepCount;
+    }
+
+    /**
+     * @return number of steps read so far
+     */
+    public int step() {
+        return step;
+    }
+
+    /**
+     * Advances to the next record. A record that cannot belong to the
+     * replay's board, such as a tile outside it, is refused rather than
+     * read, since replays may come from anywhere.
+     *
+     * @return {@code false} at the end of the replay
+     * @throws IllegalArgumentException if the record does not fit the board
+     */
+    public boolean next() {
+        int position = data.position();
+        int length = recordLength(position);
+        if (length == 0) return false;
+        record = data.getShort(position) & 0xFFFF;
+        boardAt = position + Short.BYTES;
+        data.position(position + length);
+        if (isStep(record)) {
+            step++;
+        }
+        checkRecord(position);
+        return true;
+    }
+
+    /**
+     * @return kind of the current record: {@link #MOVE}, {@link #SPAWN},
+     *         {@link #RESTORE} or {@link #KEYFRAME}
+     */
+    public int kind() {
+        return record >>> 14;
+    }
+
+    /**
+     * @return direction of the current move record
+     */
+    public Direction direction() {
+        return Direction.fromCode(record);
+    }
+
+    /**
+     * @return cell index of the tile spawned by the current move or spawn record
+     */
+    public int spawnCell() {
+        return (record >>> 2) & 0x3F;
+    }
+
+    /**
+     * @return exponent (1 or 2) of the tile spawned by the current move or spawn record
+     */
+    public int spawnExponent() {
+        return ((record >>> 8) & 1) + 1;
+    }
+
+    /**
+     * Copies the board of the current restore or keyframe record.
+     *
+     * @param board board of the replay's size to overwrite
+     */
+    public void restoredBoard(PackedBoard board) {
+        for (int w = 0; w < wordCount; w++) {
+            board.setWord(w, data.getLong(boardAt + w * Long.BYTES));
+        }
+    }
+
+    /**
+     * @return score of the current restore or keyframe record
+     */
+    public long restoredScore() {
+        return data.getLong(boardAt + wordCount * Long.BYTES);
+    }
+
+    /**
+     * Plays the current record on a game of the replay's size.
+     *
+     * @param game the game, started from an empty board before the first record
+     * @return {@code false} if a recorded move did not change the board,
+     *         which means the replay does not match the game
+     */
+    public boolean applyTo(Game game) {
+        switch (kind()) {
+            case MOVE:
+                return game.replayMove(direction(), spawnCell(), spawnExponent());
+            case SPAWN:
+                game.placeTile(spawnCell(), spawnExponent());
+                return true;
+            default:
+                restoredBoard(scratch);
+                game.restore(scratch, restoredScore());
+                return true;
+        }
+    }
+
+    /**
+     * Puts a game at the given step, replaying from the nearest keyframe.
+     * The next call to {@link #next()} reads the record after that step.
+     *
+     * @param target step to go to, clamped to {@code 0..stepCount()}
+     * @param game   a game of the replay's size; its board and score are replaced
+     */
+    public void seek(int target, Game game) {
+        target = Math.max(0, Math.min(target, stepCount));
+        int k = Arrays.binarySearch(keyframeSteps, target);
+        if (k < 0) k = -k - 2;
+        if (k >= 0) {
+            data.position(keyframeOffsets[k]);
+            next();
+            step = keyframeSteps[k];
+            applyTo(game);
+        } else {
+            rewind();
+            scratch.clear();
+            game.restore(scratch, 0);
+        }
+        while (true) {
+            int position = data.position();
+            if (recordLength(position) == 0) break;
+            if (step == target && isStep(data.getShort(position) & 0xFFFF)) break;
+            next();
+            applyTo(game);
+        }
+    }
+
+    /**
+     * Checks that the current record fits the board: a spawned tile must be
+     * on it, and a restored board may only use the bits of its cells and
+     * have a non-negative score. Spawned exponents are 1 or 2 by encoding.
+     */
+    private void checkRecord(int position) {
+        int kind = kind();
+        if (kind == MOVE || kind == SPAWN) {
+            if (spawnCell() >= size * size) {
+                throw new IllegalArgumentException("Corrupt replay record at byte " + position
+                        + ": tile on cell " + spawnCell() + " of a " + size + "x" + size + " board");
+            }
+            return;
+        }
+        int rowsPerWord = 64 / (4 * size);
+        for (int w = 0; w < wordCount; w++) {
+            int usedBits = 4 * size * Math.min(rowsPerWord, size - w * rowsPerWord);
+            long word = data.getLong(boardAt + w * Long.BYTES);
+            if (usedBits < Long.SIZE && word >>> usedBits != 0) {
+                throw new IllegalArgumentException("Corrupt replay record at byte " + position
+                        + ": board has tiles outside " + size + "x" + size);
+            }
+        }
+        if (restoredScore() < 0) {
+            throw new IllegalArgumentException("Corrupt replay record at byte " + position
+                    + ": negative score");
+        }
+    }
+
+    /**
+     * Goes back to the first record.
+     */
+    public void rewind() {
+        data.position(firstRecord);
+        step = 0;
+    }
+
+    private static boolean isStep(int bits) {
+        int kind = bits >>> 14;
+        return kind == MOVE || kind == RESTORE;
+    }
+
+    /**
+     * Returns the length of the record at a position.
+     *
+     * @return the length in bytes, 0 at the end record or if the record is incomplete
+     */
+    private int recordLength(int position) {
+        if (end - position < Short.BYTES) return 0;
+        int bits = data.getShort(position) & 0xFFFF;
+        if (bits == (ReplayWriter.END & 0xFFFF)) return 0;
+        int kind = bits >>> 14;
+        int length = kind == RESTORE || kind == KEYFRAME
+                ? Short.BYTES + (wordCount + 1) * Long.BYTES
+                : Short.BYTES;
+        return end - position < length ? 0 : length;
+    }
+
+    /**
+     * Loads the keyframe index from the end of a finished file.
+     *
+     * @return {@code false} if the file has no valid index
+     */
+    private boolean readIndex() {
+        int limit = data.limit();
+        if (limit - firstRecord < ReplayWriter.FOOTER_BYTES + 2 * Integer.BYTES
+                || data.getInt(limit - Integer.BYTES) != ReplayWriter.MAGIC) {
+            return false;
+        }
+        int indexOffset = data.getInt(limit - ReplayWriter.FOOTER_BYTES);
+        int tail = limit - ReplayWriter.FOOTER_BYTES - 2 * Integer.BYTES;
+        if (indexOffset < firstRecord || indexOffset > tail) return false;
+        int count = data.getInt(tail);
+        if (count < 0 || indexOffset + 2L * Integer.BYTES * count != tail) return false;
+
+        keyframeSteps = new int[count];
+        keyframeOffsets = new int[count];
+        for (int k = 0; k < count; k++) {
+            keyframeSteps[k] = data.getInt(indexOffset + 8 * k);
+            keyframeOffsets[k] = data.getInt(indexOffset + 8 * k + 4);
+        }
+        stepCount = data.getInt(tail + Integer.BYTES);
+        end = indexOffset;
+        return true;
+    }
+
+    /**
+     * Builds the keyframe index by reading every record.
+     */
+    private void scanIndex() {
+        int count = 0;
+        rewind();
+        while (true) {
+            int position = data.position();
+            if (!next()) break;
+            if (kind() == KEYFRAME) {
+                if (count == keyframeSteps.length) {
+                    keyframeSteps = Arrays.copyOf(keyframeSteps, Math.max(16, 2 * count));
+                    keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeSteps.length);
+                }
+                keyframeSteps[count] = step;
+                keyframeOffsets[count] = position;
+                count++;
+            }
+        }
+        keyframeSteps = Arrays.copyOf(keyframeSteps, count);
+        keyframeOffsets = Arrays.copyOf(keyframeOffsets, count);
+        stepCount = step;
+    }
+}
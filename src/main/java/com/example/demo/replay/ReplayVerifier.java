@@ -0,0 +1,201 @@
+package com.example.demo.replay;
+
+import com.example.demo.engine.Game;
+import com.example.demo.engine.PackedBoard;
+
+import java.util.Arrays;
+
+/**
+ * Checks a replay against the game rules by playing it again from its seed.
+ * <p>
+ * The recorded tiles are not trusted: the game is restarted from the seed in
+ * the header, every recorded move is made with the headless rules and the
+ * tile the rules spawn must be the one in the record. An undo or redo may
+ * only return to a position (board and score) the game has already been
+ * in, and every keyframe must match the replayed board. The score is
+ * accepted only if the replay passes and ends on the claimed score.
+ * <p>
+ * An instance reuses its games and buffers from one replay to the next, so
+ * it is not thread-safe; use one per thread.
+ */
+public class ReplayVerifier {
+
+    private final Game[] games = new Game[PackedBoard.MAX_SIZE + 1];
+    private final PackedBoard[] scratch = new PackedBoard[PackedBoard.MAX_SIZE + 1];
+    private long[] visited = new long[1024];
+
+    /**
+     * Verifies a replay.
+     *
+     * @param reader       the replay, positioned anywhere; it is rewound first
+     * @param claimedScore the score to check, or -1 to accept any final score
+     * @return the verdict
+     */
+    public Verdict verify(ReplayReader reader, long claimedScore) {
+        int n = reader.size();
+        if (games[n] == null) {
+            games[n] = new Game(n, 0);
+            scratch[n] = new PackedBoard(n);
+        }
+        try {
+            return replay(reader, claimedScore, games[n], scratch[n]);
+        } catch (IllegalArgumentException e) {
+            // A record that does not fit the board, e.g. a tile outside it
+            return Verdict.rejected(e.getMessage(), games[n], 0);
+        }
+    }
+
+    private Verdict replay(ReplayReader reader, long claimedScore, Game game, PackedBoard board) {
+        int n = reader.size();
+        int stride = board.wordCount() + 1;
+        int states = 0;
+        int moves = 0;
+
+        game.start(reader.seed());
+        board.clear();
+        reader.rewind();
+        boolean started = false;
+        while (reader.next()) {
+            int kind = reader.kind();
+            if (kind == ReplayReader.SPAWN) {
+                if (started) return Verdict.rejected("Starting tile after the first move", game, moves);
+                board.set(reader.spawnCell() / n, reader.spawnCell() % n, reader.spawnExponent());
+                continue;
+            }
+            if (!started) {
+                if (board.diffMask(game.getBoard()) != 0) {
+                    return Verdict.rejected("Starting tiles do not match the seed", game, moves);
+                }
+                states = remember(game, stride, states);
+                started = true;
+            }
+            switch (kind) {
+                case ReplayReader.MOVE -> {
+                    if (!game.move(reader.direction())) {
+                        return Verdict.rejected("Move " + (moves + 1) + " does not change the board", game, moves);
+                    }
+                    moves++;
+                    if (game.getLastSpawnCell() != reader.spawnCell()
+                            || game.getLastSpawnExponent() != reader.spawnExponent()) {
+                        return Verdict.rejected("Spawn after move " + moves + " does not match the seed", game, moves);
+                    }
+                    states = remember(game, stride, states);
+                }
+                case ReplayReader.RESTORE -> {
+                    reader.restoredBoard(board);
+                    if (!wasVisited(board, reader.restoredScore(), stride, states)) {
+                        return Verdict.rejected("Undo to a position that was never played", game, moves);
+                    }
+                    game.restore(board, reader.restoredScore());
+                    states = remember(game, stride, states);
+                }
+                default -> {
+                    reader.restoredBoard(board);
+                    if (board.diffMask(game.getBoard()) != 0 || reader.restoredScore() != game.getScore()) {
+                        return Verdict.rejected("Keyframe does not match the replayed game", game, moves);
+                    }
+                }
+            }
+        }
+        if (!started && board.diffMask(game.getBoard()) != 0) {
+            return Verdict.rejected("Starting tiles do not match the seed", game, moves);
+        }
+        if (claimedScore >= 0 && claimedScore != game.getScore()) {
+            return Verdict.rejected("Claimed score " + claimedScore + " does not match", game, moves);
+        }
+        return new Verdict(true, "", game.getScore(), game.getMaxExponent(), moves);
+    }
+
+    /**
+     * Stores the current board and score as a position the game has been in.
+     *
+     * @return the new number of stored positions
+     */
+    private int remember(Game game, int stride, int states) {
+        int at = states * stride;
+        if (at + stride > visited.length) {
+            visited = Arrays.copyOf(visited, 2 * visited.length);
+        }
+        PackedBoard board = game.getBoard();
+        for (int w = 0; w < stride - 1; w++) {
+            visited[at + w] = board.word(w);
+        }
+        visited[at + stride - 1] = game.getScore();
+        return states + 1;
+    }
+
+    private boolean wasVisited(PackedBoard board, long score, int stride, int states) {
+        // Undo is rare, so a linear scan of the stored positions is enough
+        for (int s = states - 1; s >= 0; s--) {
+            int at = s * stride;
+            if (visited[at + stride - 1] != score) continue;
+            int w = 0;
+            while (w < stride - 1 && visited[at + w] == board.word(w)) w++;
+            if (w == stride - 1) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Outcome of verifying one replay.
+     */
+    public static final class Verdict {
+        private final boolean valid;
+        private final String reason;
+        private final long score;
+        private final int maxExponent;
+        private final int moves;
+
+        Verdict(boolean valid, String reason, long score, int maxExponent, int moves) {
+            this.valid = valid;
+            this.reason = reason;
+            this.score = score;
+            this.maxExponent = maxExponent;
+            this.moves = moves;
+        }
+
+        static Verdict rejected(String reason, Game game, int moves) {
+            return new Verdict(false, reason, game.getScore(), game.getMaxExponent(), moves);
+        }
+
+        /**
+         * @return {@code true} if the replay follows the rules and matches the claimed score
+         */
+        public boolean isValid() {
+            return valid;
+        }
+
+        /**
+         * @return why the replay was rejected, empty if it is valid
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * @return score of the replayed game, up to the point it was rejected
+         */
+        public long getScore() {
+            return score;
+        }
+
+        /**
+         * @return exponent of the largest tile of the replayed game
+         */
+        public int getMaxExponent() {
+            return maxExponent;
+        }
+
+        /**
+         * @return number of moves replayed
+         */
+        public int getMoves() {
+            return moves;
+        }
+
+        @Override
+        public String toString() {
+            return valid ? "valid, score " + score + " in " + moves + " moves" : "rejected: " + reason;
+        }
+    }
+}
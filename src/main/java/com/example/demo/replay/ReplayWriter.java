@@ -0,0 +1,232 @@
+package com.example.demo.replay;
+
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.Game;
+import com.example.demo.engine.MoveListener;
+import com.example.demo.engine.PackedBoard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes a game to a compact binary replay file as it is played.
+ * <p>
+ * The file starts with a header holding the board size and the game seed.
+ * Each move then takes one little-endian 16-bit record:
+ * <pre>
+ *   bits 0-1   direction code
+ *   bits 2-7   cell index of the spawned tile (row * size + col)
+ *   bit  8     spawned tile is a 4
+ *   bits 14-15 record kind
+ * </pre>
+ * The starting tiles are {@link ReplayReader#SPAWN} records. An undo or redo
+ * is a {@link ReplayReader#RESTORE} record followed by the packed board words
+ * and the score, so a replay does not depend on how the history was kept.
+ * <p>
+ * Every {@link #KEYFRAME_INTERVAL} steps (moves and restores) a
+ * {@link ReplayReader#KEYFRAME} record holds the full board and score. When
+ * the writer is closed, an end record, an index of the keyframes and a footer
+ * pointing at the index are appended, so a reader can seek to any step by
+ * replaying at most one interval. A 10,000-move game takes about 21 KB.
+ * <p>
+ * Records are collected in a direct buffer and written to the file channel
+ * when it fills up, on {@link #flush()} and on {@link #close()}. Since the
+ * recorder is called from the game loop, a failed write does not throw:
+ * recording stops and the error is thrown by {@link #close()}.
+ */
+public final class ReplayWriter implements MoveListener, Closeable {
+
+    static final int MAGIC = 0x594C5052; // "RPLY" in little-endian byte order
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = Integer.BYTES + 2 + Long.BYTES;
+    static final int FOOTER_BYTES = 2 * Integer.BYTES;
+    static final short END = (short) 0xFFFF;
+
+    /** Number of steps between two keyframes */
+    public static final int KEYFRAME_INTERVAL = 256;
+
+    private static final int BUFFER_BYTES = 8192;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final Game game;
+    private final int wordCount;
+    private long written;
+    private int steps;
+    private int[] keyframeSteps = new int[16];
+    private int[] keyframeOffsets = new int[16];
+    private int keyframes;
+    private IOException error;
+
+    private ReplayWriter(FileChannel channel, Game game) {
+        this.channel = channel;
+        this.game = game;
+        this.wordCount = game.getBoard().wordCount();
+    }
+
+    /**
+     * Creates a replay file for a game that has just started, replacing any
+     * existing file, and writes the header and the starting tiles. Set the
+     * writer as the game's {@link MoveListener} to record its moves.
+     *
+     * @param file the replay file
+     * @param game the game to record; its board is read for keyframes
+     * @return the writer
+     * @throws IOException if the file cannot be created
+     */
+    public static ReplayWriter create(Path file, Game game) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ReplayWriter writer = new ReplayWriter(channel, game);
+        int n = game.getSize();
+        writer.buffer.putInt(MAGIC).put((byte) VERSION).put((byte) n).putLong(game.getSeed());
+        PackedBoard board = game.getBoard();
+        for (long tiles = ~board.emptyMask() & ((1L << (n * n)) - 1); tiles != 0; tiles &= tiles - 1) {
+            int cell = Long.numberOfTrailingZeros(tiles);
+            writer.put((short) (ReplayReader.SPAWN << 14 | tileBits(cell, board.get(cell / n, cell % n))));
+        }
+        return writer;
+    }
+
+    /**
+     * Records a move and the tile it spawned.
+     */
+    @Override
+    public void moved(Direction direction, int spawnCell, int spawnExponent) {
+        put((short) (ReplayReader.MOVE << 14 | tileBits(spawnCell, spawnExponent) | direction.code()));
+        endStep();
+    }
+
+    /**
+     * Records that the game's board and score were replaced, e.g. by undo
+     * or redo. Call it after the game has been restored.
+     */
+    public void recordRestore() {
+        putBoard(ReplayReader.RESTORE);
+        endStep();
+    }
+
+    /**
+     * Writes the buffered records to the file, so a game in progress can be
+     * read back.
+     *
+     * @throws IOException if a write failed
+     */
+    public void flush() throws IOException {
+        drain();
+        if (error != null) throw error;
+    }
+
+    /**
+     * @return number of steps recorded so far
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Writes the end record, the keyframe index and the footer, then closes
+     * the file.
+     *
+     * @throws IOException if a write failed, now or earlier
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            put(END);
+            int indexOffset = (int) offset();
+            for (int k = 0; k < keyframes; k++) {
+                putInt(keyframeSteps[k]);
+                putInt(keyframeOffsets[k]);
+            }
+            putInt(keyframes);
+            putInt(steps);
+            // Footer: where the index starts, then the magic number again
+            putInt(indexOffset);
+            putInt(MAGIC);
+            drain();
+        } finally {
+            channel.close();
+        }
+        if (error != null) throw error;
+    }
+
+    private static int tileBits(int cell, int exponent) {
+        return cell << 2 | (exponent - 1) << 8;
+    }
+
+    private void endStep() {
+        steps++;
+        if (steps % KEYFRAME_INTERVAL == 0) {
+            if (keyframes == keyframeSteps.length) {
+                keyframeSteps = Arrays.copyOf(keyframeSteps, 2 * keyframes);
+                keyframeOffsets = Arrays.copyOf(keyframeOffsets, 2 * keyframes);
+            }
+            keyframeSteps[keyframes] = steps;
+            keyframeOffsets[keyframes] = (int) offset();
+            keyframes++;
+            putBoard(ReplayReader.KEYFRAME);
+        }
+    }
+
+    private void putBoard(int kind) {
+        if (!reserve(Short.BYTES + (wordCount + 1) * Long.BYTES)) return;
+        buffer.putShort((short) (kind << 14));
+        PackedBoard board = game.getBoard();
+        for (int w = 0; w < wordCount; w++) {
+            buffer.putLong(board.word(w));
+        }
+        buffer.putLong(game.getScore());
+    }
+
+    /**
+     * @return file offset of the next byte to be written
+     */
+    private long offset() {
+        return written + buffer.position();
+    }
+
+    private void putInt(int value) {
+        if (reserve(Integer.BYTES)) {
+            buffer.putInt(value);
+        }
+    }
+
+    private void put(short record) {
+        if (reserve(Short.BYTES)) {
+            buffer.putShort(record);
+        }
+    }
+
+    /**
+     * Makes room for a record, writing out the buffer if needed.
+     *
+     * @return {@code false} if recording has stopped after an error
+     */
+    private boolean reserve(int bytes) {
+        if (error != null) return false;
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+        return error == null;
+    }
+
+    private void drain() {
+        if (error != null) return;
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.demo.scene;
+
+import com.example.demo.ai.Expectimax;
+import com.example.demo.ai.MovePolicies;
+import com.example.demo.ai.MovePolicy;
+import com.example.demo.data.DataManager;
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.Game;
+import com.example.demo.engine.PackedBoard;
+import javafx.animation.AnimationTimer;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Lets a {@link MovePolicy} play a game at a chosen speed.
+ * <p>
+ * Moves are made from an {@link AnimationTimer}, so they run on the JavaFX
+ * thread once per pulse. At the fixed speeds the moves that became due since
+ * the last pulse are played; in turbo mode moves are played until the time
+ * slice of the pulse is used up. Either way the listener is called once per
+ * pulse with the number of moves made, so the board is rendered only in its
+ * latest state rather than once per move.
+ * <p>
+ * The searching policies (expectimax and Monte Carlo rollouts) choose their
+ * move on a background thread, as {@link HintService} does, so a search
+ * never holds up a pulse. Their next move is searched as soon as the last
+ * one is made and played on the first pulse it is both ready and due, so
+ * they make at most one move per pulse.
+ */
+public class AutoPlayer {
+
+    /**
+     * Built-in move policies that can drive the game. Search and Learned
+     * use the trained n-tuple network for the board size if there is one.
+     */
+    public enum Policy {
+        RANDOM("Random", "random", false),
+        GREEDY("Greedy", "greedy", false),
+        SEARCH("Search", "expectimax", true),
+        LEARNED("Learned", "learned", false),
+        ROLLOUTS("Rollouts", "montecarlo", true);
+
+        private final String label;
+        private final String policyName;
+        private final boolean searches;
+
+        Policy(String label, String policyName, boolean searches) {
+            this.label = label;
+            this.policyName = policyName;
+            this.searches = searches;
+        }
+
+        /**
+         * @return the name shown on the policy button
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @return the policy after this one, wrapping around
+         */
+        public Policy next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+
+    /**
+     * Playing speeds, from a few moves per second to as fast as possible.
+     */
+    public enum Speed {
+        SLOW("Slow", 2),
+        NORMAL("Normal", 10),
+        FAST("Fast", 60),
+        TURBO("Turbo", 0);
+
+        private final String label;
+        private final int movesPerSecond;
+
+        Speed(String label, int movesPerSecond) {
+            this.label = label;
+            this.movesPerSecond = movesPerSecond;
+        }
+
+        /**
+         * @return the name shown on the speed button
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @return the speed after this one, wrapping around
+         */
+        public Speed next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+
+    /** Share of a 60 Hz pulse that turbo mode spends playing moves */
+    private static final long TURBO_SLICE_NANOS = 12_000_000L;
+
+    /** Time budget of one search move in milliseconds */
+    private static final long SEARCH_BUDGET_MILLIS = 5;
+
+    /** Most moves that can be owed after a stalled pulse at the fixed speeds */
+    private static final double MAX_DUE_MOVES = 4;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "auto-play-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Game game;
+    private final IntConsumer onStep;
+    private final SplittableRandom random = new SplittableRandom();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            step(now);
+        }
+    };
+
+    private Policy policy = Policy.GREEDY;
+    private MovePolicy movePolicy;
+    private Speed speed = Speed.NORMAL;
+    private boolean running;
+    private long lastPulse;
+    private double dueMoves;
+    // Move being chosen in the background by a searching policy
+    private Future<Direction> pending;
+
+    /**
+     * Creates an auto player for a game.
+     *
+     * @param game   the game to play
+     * @param onStep called on the JavaFX thread after each pulse that changed
+     *               the board or found no legal move, with the number of moves made
+     */
+    public AutoPlayer(Game game, IntConsumer onStep) {
+        this.game = game;
+        this.onStep = onStep;
+    }
+
+    /**
+     * Starts playing from the next pulse.
+     */
+    public void start() {
+        if (running) return;
+        running = true;
+        lastPulse = 0;
+        dueMoves = 0;
+        timer.start();
+    }
+
+    /**
+     * Stops playing.
+     */
+    public void stop() {
+        running = false;
+        timer.stop();
+        cancelSearch();
+    }
+
+    /**
+     * @return {@code true} while the auto player is making moves
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the policy choosing the moves
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Selects the policy used from the next move on.
+     *
+     * @param policy the policy to use
+     */
+    public void setPolicy(Policy policy) {
+        cancelSearch();
+        this.policy = policy;
+        this.movePolicy = null;
+    }
+
+    /**
+     * @return the playing speed
+     */
+    public Speed getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Selects the playing speed.
+     *
+     * @param speed the speed to use
+     */
+    public void setSpeed(Speed speed) {
+        this.speed = speed;
+        this.dueMoves = 0;
+    }
+
+    private void step(long now) {
+        if (lastPulse == 0) {
+            lastPulse = now;
+            if (speed != Speed.TURBO) return;
+        }
+        if (movePolicy == null) {
+            // Created on first use so the search table is only allocated when needed
+            movePolicy = MovePolicies.named(policy.policyName, game.getSize(), Expectimax.DEFAULT_MAX_DEPTH,
+                    SEARCH_BUDGET_MILLIS, HintService.TABLE_BYTES, DataManager.loadEvaluator(game.getSize())).get();
+        }
+
+        int moves = 0;
+        boolean stuck = false;
+        if (policy.searches) {
+            boolean due = speed == Speed.TURBO;
+            if (!due) {
+                dueMoves = Math.min(MAX_DUE_MOVES, dueMoves + (now - lastPulse) * speed.movesPerSecond / 1e9);
+                due = dueMoves >= 1;
+            }
+            if (pending == null) {
+                startSearch();
+            } else if (due && pending.isDone()) {
+                if (playSearched()) {
+                    moves++;
+                    if (speed != Speed.TURBO) dueMoves--;
+                    startSearch();
+                } else {
+                    stuck = true;
+                }
+            }
+        } else if (speed == Speed.TURBO) {
+            long sliceEnd = System.nanoTime() + TURBO_SLICE_NANOS;
+            do {
+                if (!playOne()) {
+                    stuck = true;
+                    break;
+                }
+                moves++;
+            } while (System.nanoTime() < sliceEnd);
+        } else {
+            dueMoves = Math.min(MAX_DUE_MOVES, dueMoves + (now - lastPulse) * speed.movesPerSecond / 1e9);
+            while (dueMoves >= 1) {
+                dueMoves--;
+                if (!playOne()) {
+                    stuck = true;
+                    break;
+                }
+                moves++;
+            }
+        }
+        lastPulse = now;
+
+        if (stuck) {
+            stop();
+        }
+        if (moves > 0 || stuck) {
+            onStep.accept(moves);
+        }
+    }
+
+    private boolean playOne() {
+        Direction direction = movePolicy.choose(game.getBoard(), random);
+        return direction != null && game.move(direction);
+    }
+
+    /**
+     * Starts choosing the next move in the background, on a copy of the
+     * board and with a random generator of its own.
+     */
+    private void startSearch() {
+        MovePolicy searcher = movePolicy;
+        PackedBoard snapshot = new PackedBoard(game.getBoard());
+        SplittableRandom searchRandom = random.split();
+        pending = EXECUTOR.submit(() -> searcher.choose(snapshot, searchRandom));
+    }
+
+    /**
+     * Makes the move the finished background search chose.
+     *
+     * @return {@code false} if there was no legal move
+     */
+    private boolean playSearched() {
+        Direction direction;
+        try {
+            direction = pending.get();
+        } catch (InterruptedException | ExecutionException e) {
+            direction = null;
+        }
+        pending = null;
+        return direction != null && game.move(direction);
+    }
+
+    private void cancelSearch() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+}
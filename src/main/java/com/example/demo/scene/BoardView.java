@@ -0,0 +1,242 @@
+package com.example.demo.scene;
+
+import com.example.demo.engine.MoveChanges;
+import com.example.demo.engine.PackedBoard;
+import javafx.scene.Group;
+
+import java.util.logging.Logger;
+
+/**
+ * The board shown by the game and replay scenes.
+ * <p>
+ * Works out where the board and its n x n cells sit in the window and renders
+ * a {@link PackedBoard} there. Two renderers are available, chosen once at
+ * launch with {@link #setRenderer(Renderer)}: {@link NodeBoardView} keeps an
+ * image view per cell in the scene graph, and {@link CanvasBoardView} paints
+ * the whole board into one canvas. Both show the sprites of a
+ * {@link TileAtlas}. Either way only the cells whose value changed are
+ * redrawn, {@link #renderCells} redraws only the cells in a mask and
+ * {@link #apply} only the tiles listed in a move's {@link MoveChanges}.
+ * <p>
+ * The time spent rendering is counted so the two renderers can be compared;
+ * see {@link #getStatistics()}.
+ */
+public abstract class BoardView {
+
+    /**
+     * Ways of drawing the board.
+     */
+    public enum Renderer {
+        /** An image view per cell */
+        NODES,
+        /** One canvas for the whole board */
+        CANVAS
+    }
+
+    /** Gap between neighbouring cells in pixels */
+    public static final int GAP = 10;
+
+    private static final Logger LOGGER = Logger.getLogger(BoardView.class.getName());
+
+    private static Renderer renderer = Renderer.NODES;
+
+    protected final Group root;
+    protected final int n;
+    protected final double length;
+    protected final double boardX;
+    protected final double boardY;
+    protected final double boardWidth;
+    private long renders;
+    private long renderNanos;
+
+    /**
+     * Works out the board geometry.
+     *
+     * @param root   group the board is added to
+     * @param n      number of rows and columns
+     * @param length width and height of one cell in pixels
+     */
+    protected BoardView(Group root, int n, double length) {
+        this.root = root;
+        this.n = n;
+        this.length = length;
+
+        double size = n * length + (n - 1) * GAP;
+        // The background is drawn slightly smaller to keep clear of the instructions
+        this.boardWidth = size * 0.9;
+        this.boardX = (1200 - boardWidth) / 2;
+        this.boardY = (700 - boardWidth) / 2;
+    }
+
+    /**
+     * Creates a board with the renderer chosen at launch and adds it to a root group.
+     *
+     * @param root   group the board is added to
+     * @param n      number of rows and columns
+     * @param length width and height of one cell in pixels
+     * @return the board
+     */
+    public static BoardView create(Group root, int n, double length) {
+        return renderer == Renderer.CANVAS
+                ? new CanvasBoardView(root, n, length)
+                : new NodeBoardView(root, n, length);
+    }
+
+    /**
+     * Chooses the renderer of the boards created from now on.
+     *
+     * @param newRenderer the renderer
+     */
+    public static void setRenderer(Renderer newRenderer) {
+        renderer = newRenderer;
+        LOGGER.fine(() -> "Board renderer: " + renderer);
+    }
+
+    /**
+     * @return the renderer boards are created with
+     */
+    public static Renderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Returns the cell length used for a board size, so the board fits the
+     * window height chosen for that size.
+     *
+     * @param n number of rows and columns (4-6)
+     * @return tile width/height in pixels
+     */
+    public static double tileLength(int n) {
+        return (sceneHeight(n) - ((n + 1) * GAP)) / (double) n;
+    }
+
+    /**
+     * Returns the window height used for a board size.
+     *
+     * @param n number of rows and columns (4-6)
+     * @return the scene height in pixels
+     */
+    public static int sceneHeight(int n) {
+        return n == 6 ? 800 : n == 5 ? 750 : 700;
+    }
+
+    /**
+     * Clears every cell, e.g. for a new game.
+     */
+    public abstract void rebuild();
+
+    /**
+     * Shows a board, updating only the cells whose value changed.
+     *
+     * @param board the board to show
+     */
+    public final void render(PackedBoard board) {
+        long start = System.nanoTime();
+        drawBoard(board);
+        countRender(start);
+    }
+
+    /**
+     * Shows only the given cells of a board.
+     *
+     * @param board   the board to show
+     * @param changed bit {@code row * n + col} set for every cell to redraw
+     */
+    public final void renderCells(PackedBoard board, long changed) {
+        long start = System.nanoTime();
+        drawCells(board, changed);
+        countRender(start);
+    }
+
+    /**
+     * Shows the result of a move, updating only the tiles the move changed.
+     *
+     * @param changes the changes of the move
+     * @param board   the board after the move
+     */
+    public final void apply(MoveChanges changes, PackedBoard board) {
+        long start = System.nanoTime();
+        drawChanges(changes, board);
+        countRender(start);
+    }
+
+    /**
+     * Draws the cells of a board whose value changed.
+     *
+     * @param board the board to show
+     */
+    protected abstract void drawBoard(PackedBoard board);
+
+    /**
+     * Draws the cells in a mask.
+     *
+     * @param board   the board to show
+     * @param changed bit {@code row * n + col} set for every cell to redraw
+     */
+    protected abstract void drawCells(PackedBoard board, long changed);
+
+    /**
+     * Draws the changes of a move. By default the cells the move touched
+     * are redrawn from the board.
+     *
+     * @param changes the changes of the move
+     * @param board   the board after the move
+     */
+    protected void drawChanges(MoveChanges changes, PackedBoard board) {
+        drawCells(board, changes.touchedMask());
+    }
+
+    /**
+     * @return number of scene graph nodes the board is made of
+     */
+    public abstract int nodeCount();
+
+    /**
+     * @return x coordinate of the cell in a column
+     */
+    protected double cellX(int col) {
+        return boardX + col * length + (col + 1) * GAP;
+    }
+
+    /**
+     * @return y coordinate of the cell in a row
+     */
+    protected double cellY(int row) {
+        return boardY + row * length + (row + 1) * GAP;
+    }
+
+    /**
+     * @return x coordinate of the board background
+     */
+    public double getX() {
+        return boardX;
+    }
+
+    /**
+     * @return width of the board background
+     */
+    public double getWidth() {
+        return boardWidth;
+    }
+
+    /**
+     * @return number of rows and columns
+     */
+    public int getSize() {
+        return n;
+    }
+
+    /**
+     * @return renderer name, number of renders, average render time and node count
+     */
+    public String getStatistics() {
+        long average = renders == 0 ? 0 : renderNanos / renders / 1000;
+        return getClass().getSimpleName() + ": " + renders + " renders, " + average + " µs average, "
+                + nodeCount() + " nodes";
+    }
+
+    private void countRender(long start) {
+        renderNanos += System.nanoTime() - start;
+        renders++;
+    }
+}
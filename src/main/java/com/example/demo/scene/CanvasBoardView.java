@@ -0,0 +1,141 @@
+package com.example.demo.scene;
+
+import com.example.demo.engine.PackedBoard;
+import javafx.scene.Group;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Board painted into a single {@link Canvas}, with the same look as
+ * {@link NodeBoardView} but one node for the whole board.
+ * <p>
+ * The canvas remembers which value each cell shows, and a render repaints
+ * only the cells whose value changed: each dirty cell is cleared, the part
+ * of the board background under it is repainted and the tile's sprite is
+ * copied on top from the {@link TileAtlas}, so no text is laid out. The
+ * drawing commands are buffered by JavaFX and reach the screen on the next
+ * pulse, so several renders in one pulse cost one frame.
+ */
+public class CanvasBoardView extends BoardView {
+
+    private static final Color BACKGROUND = Color.rgb(238, 228, 218);
+    private static final double ARC = 15;
+
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+    private final TileAtlas atlas;
+    private final int[] shown;
+    private int hovered = -1;
+
+    /**
+     * Creates the board and adds its canvas to a root group.
+     *
+     * @param root   group the canvas is added to
+     * @param n      number of rows and columns
+     * @param length width and height of one cell in pixels
+     */
+    public CanvasBoardView(Group root, int n, double length) {
+        super(root, n, length);
+        double size = n * length + (n + 1) * GAP;
+        canvas = new Canvas(size, size);
+        canvas.setLayoutX(boardX);
+        canvas.setLayoutY(boardY);
+        graphics = canvas.getGraphicsContext2D();
+        atlas = TileAtlas.forLength(length);
+        shown = new int[n * n];
+
+        // Hovered tiles are drawn a little darker, like the node cells
+        canvas.setOnMouseMoved(e -> hover(cellAt(e.getX(), e.getY())));
+        canvas.setOnMouseExited(e -> hover(-1));
+        root.getChildren().add(canvas);
+        rebuild();
+    }
+
+    /**
+     * Clears the canvas and paints every cell empty.
+     */
+    @Override
+    public void rebuild() {
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        graphics.setFill(BACKGROUND);
+        graphics.fillRoundRect(0, 0, boardWidth, boardWidth, ARC, ARC);
+        for (int cell = 0; cell < n * n; cell++) {
+            paint(cell, 0);
+        }
+    }
+
+    @Override
+    protected void drawBoard(PackedBoard board) {
+        for (int cell = 0; cell < n * n; cell++) {
+            int exponent = board.get(cell / n, cell % n);
+            if (exponent != shown[cell]) {
+                paint(cell, exponent);
+            }
+        }
+    }
+
+    @Override
+    protected void drawCells(PackedBoard board, long changed) {
+        for (; changed != 0; changed &= changed - 1) {
+            int cell = Long.numberOfTrailingZeros(changed);
+            paint(cell, board.get(cell / n, cell % n));
+        }
+    }
+
+    @Override
+    public int nodeCount() {
+        return 1;
+    }
+
+    /**
+     * Repaints one cell: clears it, restores the board background under it
+     * and copies the tile's sprite from the atlas.
+     */
+    private void paint(int cell, int exponent) {
+        shown[cell] = exponent;
+        double x = cellX(cell % n) - boardX;
+        double y = cellY(cell / n) - boardY;
+
+        graphics.clearRect(x, y, length, length);
+        graphics.save();
+        graphics.beginPath();
+        graphics.rect(x, y, length, length);
+        graphics.clip();
+        graphics.setFill(BACKGROUND);
+        graphics.fillRoundRect(0, 0, boardWidth, boardWidth, ARC, ARC);
+        graphics.restore();
+
+        boolean hover = cell == hovered;
+        graphics.drawImage(atlas.getImage(), atlas.spriteX(exponent, hover), atlas.spriteY(exponent, hover),
+                length, length, x, y, length, length);
+    }
+
+    /**
+     * Moves the hover highlight to another cell, repainting the two cells involved.
+     *
+     * @param cell the cell under the mouse, or -1 for none
+     */
+    private void hover(int cell) {
+        if (cell == hovered) {
+            return;
+        }
+        int previous = hovered;
+        hovered = cell;
+        if (previous >= 0) paint(previous, shown[previous]);
+        if (cell >= 0) paint(cell, shown[cell]);
+    }
+
+    /**
+     * @return the cell at a point of the canvas, or -1 if the point is in a gap
+     */
+    private int cellAt(double x, double y) {
+        int col = (int) Math.floor((x - GAP) / (length + GAP));
+        int row = (int) Math.floor((y - GAP) / (length + GAP));
+        if (col < 0 || row < 0 || col >= n || row >= n
+                || x - GAP - col * (length + GAP) >= length || y - GAP - row * (length + GAP) >= length) {
+            return -1;
+        }
+        return row * n + col;
+    }
+}
@@ -3,6 +3,8 @@ package com.example.demo.scene;
 import com.example.demo.data.Account;
 import com.example.demo.data.AccountManager;
 import com.example.demo.data.DataManager;
+import com.example.demo.replay.ReplayVerifier;
+import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
@@ -17,17 +19,39 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javafx.geometry.Pos;
 
 /**
  * Singleton class that displays the end game screen with score summary,
  * high scores, and navigation options.
  * <p>
- * It includes UI elements like "Restart", "Back", and shows the top 3 scores.
+ * It includes UI elements like "Restart", "Back", and shows the top 5 scores.
+ * The screen is built once per root and updated in place at each game over.
  */
 public class EndGame {
+    private static final int TOP_SCORES = 5;
+
     private static EndGame singleInstance = null;
 
+    /**
+     * The parts of a built end game screen that change from game to game.
+     */
+    private static final class View {
+        private Text newHighScoreText;
+        private Text scoreText;
+        private Text playerName;
+        private Text totalScoreLabel;
+        private Text verificationText;
+        private final HBox[] scoreRows = new HBox[TOP_SCORES];
+        private final Text[] names = new Text[TOP_SCORES];
+        private final Text[] scoreValues = new Text[TOP_SCORES];
+        private Runnable onRestart;
+        private Runnable goHome;
+        // Counts the games shown, so a late verdict can tell it is out of date
+        private int generation;
+    }
+
     /**
      * Private constructor to enforce singleton pattern.
      */
@@ -47,6 +71,9 @@ public class EndGame {
     /**
      * Displays the end game screen with the final score, restart and back buttons,
      * and a list of top scores.
+     * <p>
+     * The screen is built the first time a root is shown and kept in the
+     * root; later games only update its texts and actions.
      *
      * @param endGameScene the scene to render the end game UI
      * @param root the group root node for UI elements
@@ -55,10 +82,87 @@ public class EndGame {
      * @param onRestart a {@code Runnable} to restart the game when the Restart button is clicked
      * @param goHome a {@code Runnable} to go back to the home screen
      * @param currentPlayer the current player whose score will be saved
+     * @param verification completes with the verdict on the game's replay, or with
+     *                     {@code null} if the game was not recorded; the score is
+     *                     saved only once the replay has been verified
      */
     public void endGameShow(Scene endGameScene, Group root, Stage primaryStage, long score,
-                            Runnable onRestart, Runnable goHome, Account currentPlayer) {
+                            Runnable onRestart, Runnable goHome, Account currentPlayer,
+                            CompletableFuture<ReplayVerifier.Verdict> verification) {
+        View view = root.getUserData() instanceof View built ? built : build(root, primaryStage);
+        view.onRestart = onRestart;
+        view.goHome = goHome;
+
+        // Check if this is a new high score
+        long previousHighScore = currentPlayer.getScore() - score;
+        view.newHighScoreText.setVisible(score > previousHighScore);
+        view.newHighScoreText.setManaged(score > previousHighScore);
+
+        view.scoreText.setText(String.valueOf(score));
+        view.playerName.setText(currentPlayer.getUserName());
+        view.totalScoreLabel.setText("Total Score: " + currentPlayer.getScore());
+
+        // The replay is checked in the background, so the screen shows at once
+        view.verificationText.setText("Verifying score…");
+        int generation = ++view.generation;
+        verification.whenComplete((verdict, error) -> Platform.runLater(() -> {
+            // A verdict that arrives after the next game ended still saves its score, but leaves the screen alone
+            boolean current = generation == view.generation;
+            if (verdict != null && verdict.isValid()) {
+                // Save score to player's profile
+                AccountManager.addScoreAndSave(currentPlayer, score);
+                DataManager.saveLastPlayer(currentPlayer);
+                if (current) {
+                    view.totalScoreLabel.setText("Total Score: " + currentPlayer.getScore());
+                    view.verificationText.setText("Score verified ✓");
+                    showTopScores(view);
+                }
+            } else if (!current) {
+                return;
+            } else if (error != null) {
+                view.verificationText.setText("Score not counted: verification failed");
+            } else if (verdict != null) {
+                view.verificationText.setText("Score not counted: " + verdict.getReason());
+            } else {
+                view.verificationText.setText("Score not counted: the game was not recorded");
+            }
+        }));
+
+        showTopScores(view);
+
+        // Set the scene
+        primaryStage.setScene(endGameScene);
+    }
+
+    /**
+     * Fills the top score rows from the accounts, hiding the unused ones.
+     */
+    private void showTopScores(View view) {
+        List<Account> topAccounts = AccountManager.getTopAccounts();
+        for (int i = 0; i < TOP_SCORES; i++) {
+            boolean used = i < topAccounts.size();
+            view.scoreRows[i].setVisible(used);
+            view.scoreRows[i].setManaged(used);
+            if (used) {
+                Account acc = topAccounts.get(i);
+                view.names[i].setText(acc.getUserName());
+                view.scoreValues[i].setText(String.valueOf(acc.getScore()));
+            }
+        }
+    }
+
+    /**
+     * Builds the end game UI into a root and keeps it there as the root's
+     * user data.
+     *
+     * @param root the group root node for UI elements
+     * @param primaryStage the application stage, for the window controls
+     * @return the texts and actions that change from game to game
+     */
+    private View build(Group root, Stage primaryStage) {
+        View view = new View();
         root.getChildren().clear();
+        root.setUserData(view);
 
         // Add window control buttons at the top-right
         HBox windowControls = new HBox(10);
@@ -86,19 +190,6 @@ public class EndGame {
         windowControls.getChildren().addAll(minimizeBtn, maximizeBtn, closeBtn);
         root.getChildren().add(windowControls);
 
-        // Check if this is a new high score
-        boolean isNewHighScore = false;
-        long previousHighScore = currentPlayer.getScore() - score;
-        if (score > previousHighScore) {
-            isNewHighScore = true;
-        }
-
-        // Save score to player's profile
-        if (currentPlayer != null) {
-            AccountManager.addScoreAndSave(currentPlayer, score);
-            DataManager.saveLastPlayer(currentPlayer);
-        }
-
         // Main container
         VBox mainContainer = new VBox(30);
         mainContainer.setLayoutX(200);
@@ -113,14 +204,10 @@ public class EndGame {
         gameOverTitle.setFont(Font.font("Arial", FontWeight.BOLD, 64));
         gameOverTitle.setFill(Color.rgb(119, 110, 101));
         
-        if (isNewHighScore) {
-            Text newHighScoreText = new Text("🎉 NEW HIGH SCORE! 🎉");
-            newHighScoreText.setFont(Font.font("Arial", FontWeight.BOLD, 24));
-            newHighScoreText.setFill(Color.rgb(237, 194, 46));
-            titleContainer.getChildren().addAll(gameOverTitle, newHighScoreText);
-        } else {
-            titleContainer.getChildren().add(gameOverTitle);
-        }
+        view.newHighScoreText = new Text("🎉 NEW HIGH SCORE! 🎉");
+        view.newHighScoreText.setFont(Font.font("Arial", FontWeight.BOLD, 24));
+        view.newHighScoreText.setFill(Color.rgb(237, 194, 46));
+        titleContainer.getChildren().addAll(gameOverTitle, view.newHighScoreText);
         
         mainContainer.getChildren().add(titleContainer);
 
@@ -132,11 +219,11 @@ public class EndGame {
         scoreLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
         scoreLabel.setFill(Color.rgb(119, 110, 101));
         
-        Text scoreText = new Text(String.valueOf(score));
-        scoreText.setFont(Font.font("Arial", FontWeight.BOLD, 36));
-        scoreText.setFill(Color.rgb(237, 194, 46));
+        view.scoreText = new Text();
+        view.scoreText.setFont(Font.font("Arial", FontWeight.BOLD, 36));
+        view.scoreText.setFill(Color.rgb(237, 194, 46));
         
-        scoreContainer.getChildren().addAll(scoreLabel, scoreText);
+        scoreContainer.getChildren().addAll(scoreLabel, view.scoreText);
         mainContainer.getChildren().add(scoreContainer);
 
         // Player Information
@@ -147,15 +234,20 @@ public class EndGame {
         playerLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
         playerLabel.setFill(Color.rgb(119, 110, 101));
         
-        Text playerName = new Text(currentPlayer.getUserName());
-        playerName.setFont(Font.font("Arial", FontWeight.BOLD, 18));
-        playerName.setFill(Color.rgb(119, 110, 101));
+        view.playerName = new Text();
+        view.playerName.setFont(Font.font("Arial", FontWeight.BOLD, 18));
+        view.playerName.setFill(Color.rgb(119, 110, 101));
         
-        Text totalScoreLabel = new Text("Total Score: " + currentPlayer.getScore());
-        totalScoreLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
-        totalScoreLabel.setFill(Color.rgb(119, 110, 101));
+        view.totalScoreLabel = new Text();
+        view.totalScoreLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
+        view.totalScoreLabel.setFill(Color.rgb(119, 110, 101));
         
-        playerContainer.getChildren().addAll(playerLabel, playerName, totalScoreLabel);
+        view.verificationText = new Text();
+        view.verificationText.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
+        view.verificationText.setFill(Color.rgb(119, 110, 101));
+
+        playerContainer.getChildren().addAll(playerLabel, view.playerName, view.totalScoreLabel,
+                view.verificationText);
         mainContainer.getChildren().add(playerContainer);
 
         // Action Buttons with enhanced styling
@@ -163,10 +255,10 @@ public class EndGame {
         buttonContainer.setAlignment(Pos.CENTER);
         
         Button restartButton = createEndGameButton("RESTART", Color.rgb(242, 177, 121));
-        restartButton.setOnAction(e -> onRestart.run());
+        restartButton.setOnAction(e -> view.onRestart.run());
         
         Button backButton = createEndGameButton("BACK TO MENU", Color.rgb(245, 149, 99));
-        backButton.setOnAction(e -> goHome.run());
+        backButton.setOnAction(e -> view.goHome.run());
         
         buttonContainer.getChildren().addAll(restartButton, backButton);
         mainContainer.getChildren().add(buttonContainer);
@@ -180,9 +272,8 @@ public class EndGame {
         highScoreTitle.setFill(Color.rgb(119, 110, 101));
         highScoreContainer.getChildren().add(highScoreTitle);
 
-        List<Account> topAccounts = AccountManager.getTopAccounts();
-        for (int i = 0; i < Math.min(5, topAccounts.size()); i++) {
-            Account acc = topAccounts.get(i);
+        // Rows for the most scores ever shown; the unused ones are hidden
+        for (int i = 0; i < TOP_SCORES; i++) {
             HBox scoreRow = new HBox(10);
             scoreRow.setAlignment(Pos.CENTER);
             
@@ -190,25 +281,26 @@ public class EndGame {
             rank.setFont(Font.font("Arial", FontWeight.BOLD, 16));
             rank.setFill(Color.rgb(119, 110, 101));
             
-            Text name = new Text(acc.getUserName());
+            Text name = new Text();
             name.setFont(Font.font("Arial", FontWeight.BOLD, 16));
             name.setFill(Color.rgb(119, 110, 101));
             
-            Text scoreValue = new Text(String.valueOf(acc.getScore()));
+            Text scoreValue = new Text();
             scoreValue.setFont(Font.font("Arial", FontWeight.BOLD, 16));
             scoreValue.setFill(Color.rgb(237, 194, 46));
             
             scoreRow.getChildren().addAll(rank, name, scoreValue);
             highScoreContainer.getChildren().add(scoreRow);
+            view.scoreRows[i] = scoreRow;
+            view.names[i] = name;
+            view.scoreValues[i] = scoreValue;
         }
         
         mainContainer.getChildren().add(highScoreContainer);
 
         // Add main container to root
         root.getChildren().add(mainContainer);
-
-        // Set the scene
-        primaryStage.setScene(endGameScene);
+        return view;
     }
 
     /**
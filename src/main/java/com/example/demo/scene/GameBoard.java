@@ -5,7 +5,7 @@ import com.example.demo.ui.TextMaker;
 import javafx.scene.Group;
 import javafx.scene.text.Text;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Represents the game board grid for the 2048 game.
@@ -22,17 +22,41 @@ public class GameBoard {
     private final Cell[][] cells = new Cell[n][n];
     private final Group root;
     private final TextMaker textMaker = TextMaker.getSingleInstance();
+    private final long seed;
+    private final SplittableRandom random;
 
     /**
-     * Constructs a new {@code GameBoard} and initializes the cell grid.
+     * Constructs a new {@code GameBoard} with a random seed and initializes the cell grid.
      *
      * @param root the JavaFX Group to which cell graphics will be added
      */
     public GameBoard(Group root) {
+        this(root, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a new {@code GameBoard} whose tiles spawn from the given seed
+     * and initializes the cell grid.
+     *
+     * @param root the JavaFX Group to which cell graphics will be added
+     * @param seed seed of the spawn generator
+     */
+    public GameBoard(Group root, long seed) {
         this.root = root;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
         initializeGrid();
     }
 
+    /**
+     * Returns the seed this board's spawns are generated from.
+     *
+     * @return the spawn seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
     /**
      * Sets the board size (n x n) and recalculates cell length.
      *
@@ -76,44 +100,32 @@ public class GameBoard {
     }
 
     /**
-     * Fills a random empty cell with either a 2 or 4.
+     * Fills a uniformly chosen empty cell with either a 2 or 4.
+     * The empty cells are counted first and the k-th one is filled, so no
+     * temporary grid is allocated.
      */
     public void randomFillNumber() {
-        Cell[][] emptyCells = new Cell[n][n];
-        int a = 0, b = 0, aForBound = 0, bForBound = 0;
-
-        // Collect all empty cells
-        outer:
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                if (cells[i][j].getNumber() == 0) {
-                    emptyCells[a][b] = cells[i][j];
-                    if (b < n - 1) {
-                        bForBound = b;
-                        b++;
-                    } else {
-                        aForBound = a;
-                        a++;
-                        b = 0;
-                        if (a == n) break outer;
-                    }
-                }
+        int empty = 0;
+        for (Cell[] row : cells) {
+            for (Cell cell : row) {
+                if (cell.getNumber() == 0) empty++;
             }
         }
+        if (empty == 0) return;
 
-        // Randomly select one empty cell and assign a new value
-        Random random = new Random();
-        int xCell = random.nextInt(Math.max(1, aForBound + 1));
-        int yCell = random.nextInt(Math.max(1, bForBound + 1));
+        int k = random.nextInt(empty);
         int number = random.nextBoolean() ? 2 : 4;
-
-        Text text = textMaker.madeText(String.valueOf(number),
-                emptyCells[xCell][yCell].getX(),
-                emptyCells[xCell][yCell].getY());
-
-        emptyCells[xCell][yCell].setTextNode(text);
-        emptyCells[xCell][yCell].attachTextToRoot();
-        emptyCells[xCell][yCell].applyNewValue(number);
+        for (Cell[] row : cells) {
+            for (Cell cell : row) {
+                if (cell.getNumber() == 0 && k-- == 0) {
+                    Text text = textMaker.madeText(String.valueOf(number), cell.getX(), cell.getY());
+                    cell.setTextNode(text);
+                    cell.attachTextToRoot();
+                    cell.applyNewValue(number);
+                    return;
+                }
+            }
+        }
     }
 
     /**
@@ -1,23 +1,30 @@
 package com.example.demo.scene;
 
 import com.example.demo.data.Account;
+import com.example.demo.ai.Expectimax;
 import com.example.demo.data.AccountManager;
-import com.example.demo.ui.Cell;
-import com.example.demo.ui.TextMaker;
+import com.example.demo.data.DataManager;
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.Game;
+import com.example.demo.engine.MoveChanges;
+import com.example.demo.engine.PackedBoard;
+import com.example.demo.engine.UndoHistory;
+import com.example.demo.engine.UndoLog;
+import com.example.demo.engine.UndoRing;
+import com.example.demo.replay.ReplayReader;
+import com.example.demo.replay.ReplayVerifier;
+import com.example.demo.replay.ReplayWriter;
 import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.Scene;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
-import javafx.scene.input.KeyCode;
-import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
-import java.util.Stack;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.FontWeight;
@@ -25,8 +32,12 @@ import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.CornerRadii;
 import javafx.geometry.Pos;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
 import javafx.scene.layout.HBox;
 
 /**
@@ -38,50 +49,47 @@ import javafx.scene.layout.HBox;
  */
 public class GameScene {
 
-    private static final int distanceBetweenCells = 10;
+    private static final Logger LOGGER = Logger.getLogger(GameScene.class.getName());
+
+    private static final int distanceBetweenCells = BoardView.GAP;
     private static int HEIGHT = 700;
     private static int n = 4;
     private static double LENGTH = (HEIGHT - ((n + 1) * distanceBetweenCells)) / (double) n;
 
-    private Cell[][] cells;
-    private final TextMaker textMaker = TextMaker.getSingleInstance();
+    private BoardView boardView;
+    private Game engine; // Headless rules engine; the cells only render its board
+    private MoveChanges moveChanges; // Filled by the engine on every move
     private Group root;
     private long score = 0;
     private Text scoreText;
+    private Text hintText;
+    private HintService hintService;
+    private boolean autoHint = false;
+    private AutoPlayer autoPlayer;
+    private Button autoPlayBtn;
     private Account currentPlayer;
     private boolean hasShownWinAlert = false;
-    
-    // Board positioning variables
-    private double boardX;
-    private double boardY;
+    private InputDispatcher input;
+    // Everything this game registers on the stage, released when the game scene is left
+    private Subscriptions subscriptions;
+    private Scene gameScene;
+    private Stage primaryStage;
+    private Text playerNameText;
+    private Text totalScoreText;
     
     // Undo functionality
-    private Stack<GameState> gameHistory = new Stack<>();
     private static final int MAX_UNDO_STEPS = 10;
-
-    /**
-     * Represents a snapshot of the game state for undo functionality.
-     */
-    private static class GameState {
-        private final int[][] board;
-        private final long score;
-        
-        public GameState(int[][] board, long score) {
-            this.board = new int[board.length][board[0].length];
-            for (int i = 0; i < board.length; i++) {
-                System.arraycopy(board[i], 0, this.board[i], 0, board[i].length);
-            }
-            this.score = score;
-        }
-        
-        public int[][] getBoard() {
-            return board;
-        }
-        
-        public long getScore() {
-            return score;
-        }
-    }
+    private UndoHistory gameHistory;
+    private boolean unlimitedUndo = false;
+    private Button redoBtn;
+    // Scratch boards reused by every move and undo, so neither allocates
+    private PackedBoard beforeMove;
+    private PackedBoard restored;
+    private long autoPlayStartScore;
+
+    // Recording of the current game, null if recording failed
+    private ReplayWriter replay;
+    private Path replayFile;
 
     /**
      * Sets the board size (e.g., 4x4, 5x5, 6x6) and recalculates the tile length.
@@ -98,21 +106,25 @@ public class GameScene {
         }
         
         // Adjust game height for larger boards
-        if (n == 5) {
-            HEIGHT = 750; // Slightly larger for 5x5
-        } else if (n == 6) {
-            HEIGHT = 800; // Larger for 6x6
-        } else {
-            HEIGHT = 700; // Default for 4x4
-        }
-        
-        LENGTH = (HEIGHT - ((n + 1) * distanceBetweenCells)) / (double) n;
+        HEIGHT = BoardView.sceneHeight(n);
+        LENGTH = BoardView.tileLength(n);
+        // Tile images are rendered once per tile size
+        TileAtlas.forLength(LENGTH);
         
         System.out.println("Board size set to " + n + "x" + n);
         System.out.println("Game height: " + HEIGHT);
         System.out.println("Tile length: " + LENGTH);
     }
 
+    /**
+     * Returns the board size set by {@link #setN}.
+     *
+     * @return number of rows and columns (4-6)
+     */
+    public static int getN() {
+        return n;
+    }
+
     /**
      * Returns the current calculated cell length.
      *
@@ -123,8 +135,9 @@ public class GameScene {
     }
 
     /**
-     * Initializes the game scene, sets up key handlers, score display, buttons,
-     * and begins gameplay.
+     * Builds the game scene, sets up key handlers, score display, buttons,
+     * and begins gameplay. Later games on the same scene are started with
+     * {@link #restart}.
      *
      * @param gameScene    main scene object
      * @param root         root node (Group) for UI elements
@@ -142,87 +155,40 @@ public class GameScene {
         this.currentPlayer = player;
         this.score = 0;
         this.hasShownWinAlert = false;
-        this.gameHistory.clear();
+        this.engine = new Game(n);
+        this.moveChanges = new MoveChanges(n);
+        engine.setChangeList(moveChanges);
+        this.gameHistory = new UndoRing(n, MAX_UNDO_STEPS);
+        this.beforeMove = new PackedBoard(n);
+        this.restored = new PackedBoard(n);
+        this.hintService = new HintService(n, Expectimax.DEFAULT_MAX_DEPTH);
+        this.autoHint = false;
+        this.autoPlayer = new AutoPlayer(engine, moves -> afterAutoPlayStep(endGameScene, endGameRoot, primaryStage,
+                onRestart, goHome));
         root.getChildren().clear();
 
-        // Make root focusable for key events
-        root.setFocusTraversable(true);
-        
-        // Immediately request focus so arrow keys work right away
-        Platform.runLater(() -> {
-            root.requestFocus();
-            System.out.println("Game started - requesting immediate focus for root");
-            
-            // Also ensure score is displayed immediately
-            if (scoreText != null) {
-                scoreText.setText(String.valueOf(score));
-                System.out.println("Score immediately set to: " + score);
+        this.gameScene = gameScene;
+        this.primaryStage = primaryStage;
+
+        // The scene is detached from the stage when the game ends or the player leaves
+        gameScene.windowProperty().addListener((observable, oldWindow, newWindow) -> {
+            if (newWindow == null && subscriptions != null) {
+                subscriptions.close();
             }
         });
+
+        // Make root focusable for key events
+        root.setFocusTraversable(true);
         
-        // Additional focus request after a short delay
-        Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    root.requestFocus();
-                    System.out.println("Delayed focus request for root");
-                });
-            }
-        }, 100); // 100ms delay
-
-        // Initialize cells array with correct size
-        cells = new Cell[n][n];
-
-        // Calculate board dimensions based on board size
-        double boardWidth = n * LENGTH + (n - 1) * distanceBetweenCells;
-        double boardHeight = n * LENGTH + (n - 1) * distanceBetweenCells;
-        
-        // Reduce board size slightly to prevent overlapping with instructions
-        double adjustedBoardWidth = boardWidth * 0.9;
-        double adjustedBoardHeight = boardHeight * 0.9;
-        
-        // Center the board on screen with adjusted size
-        boardX = (1200 - adjustedBoardWidth) / 2;
-        boardY = (700 - adjustedBoardHeight) / 2;
-
-        // Add background grid for better visibility
-        Rectangle gameBoardBackground = new Rectangle(
-            boardX, 
-            boardY, 
-            adjustedBoardWidth,
-            adjustedBoardHeight
-        );
-        gameBoardBackground.setFill(Color.rgb(238, 228, 218));
-        gameBoardBackground.setArcWidth(15);
-        gameBoardBackground.setArcHeight(15);
-        root.getChildren().add(gameBoardBackground);
-        
-        // Initialize cells with proper positioning for any board size
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                cells[i][j] = new Cell(
-                    boardX + (j) * LENGTH + (j + 1) * distanceBetweenCells,
-                    boardY + (i) * LENGTH + (i + 1) * distanceBetweenCells, 
-                    LENGTH, 
-                    root
-                );
-                
-                // Add click handler to each cell
-                final int row = i;
-                final int col = j;
-                cells[i][j].setOnMouseClicked(e -> {
-                    System.out.println("Clicked cell at [" + row + "][" + col + "] with value: " + cells[row][col].getNumber());
-                });
-            }
-        }
+
+        // Background and cells, centred on screen
+        boardView = BoardView.create(root, n, LENGTH);
 
         // Enhanced UI Panel on the right - adjust position for larger boards
         VBox uiPanel = new VBox(20);
         // Ensure panel is positioned far enough to the right to not overlap with any board size
         double minPanelX = 970; // Increased from 950 to move panel slightly right
-        double calculatedPanelX = boardX + adjustedBoardWidth + 100; // Increased from 80 to 100px gap from board
+        double calculatedPanelX = boardView.getX() + boardView.getWidth() + 100; // Increased from 80 to 100px gap from board
         uiPanel.setLayoutX(Math.max(minPanelX, calculatedPanelX));
         uiPanel.setLayoutY(50);
         uiPanel.setPrefWidth(250);
@@ -259,19 +225,19 @@ public class GameScene {
         playerLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
         playerLabel.setFill(Color.rgb(80, 80, 100));
         
-        Text playerName = new Text(currentPlayer.getUserName());
-        playerName.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        playerName.setFill(Color.rgb(255, 140, 0));
+        playerNameText = new Text(currentPlayer.getUserName());
+        playerNameText.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        playerNameText.setFill(Color.rgb(255, 140, 0));
         
         Text totalScoreLabel = new Text("Total Score");
         totalScoreLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 12));
         totalScoreLabel.setFill(Color.rgb(100, 100, 120));
         
-        Text totalScore = new Text(String.valueOf(currentPlayer.getScore()));
-        totalScore.setFont(Font.font("Arial", FontWeight.BOLD, 18));
-        totalScore.setFill(Color.rgb(100, 100, 120));
+        totalScoreText = new Text(String.valueOf(currentPlayer.getScore()));
+        totalScoreText.setFont(Font.font("Arial", FontWeight.BOLD, 18));
+        totalScoreText.setFill(Color.rgb(100, 100, 120));
         
-        playerInfo.getChildren().addAll(playerLabel, playerName, totalScoreLabel, totalScore);
+        playerInfo.getChildren().addAll(playerLabel, playerNameText, totalScoreLabel, totalScoreText);
 
         // Current Game Score
         VBox gameScoreInfo = new VBox(5);
@@ -285,6 +251,18 @@ public class GameScene {
         
         gameScoreInfo.getChildren().addAll(gameScoreLabel, scoreText);
 
+        // Suggested move
+        VBox hintInfo = new VBox(5);
+        Text hintLabel = new Text("HINT");
+        hintLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+        hintLabel.setFill(Color.rgb(80, 80, 100));
+
+        hintText = new Text("");
+        hintText.setFont(Font.font("Arial", FontWeight.BOLD, 24));
+        hintText.setFill(Color.rgb(34, 139, 34));
+
+        hintInfo.getChildren().addAll(hintLabel, hintText);
+
         // Game Controls
         VBox controls = new VBox(10);
         
@@ -294,25 +272,112 @@ public class GameScene {
         });
 
         Button undoBtn = createGameButton("Undo", Color.rgb(138, 43, 226));
-        undoBtn.setOnAction(e -> undoMove());
+        undoBtn.setOnAction(e -> {
+            undoMove();
+            root.requestFocus();
+        });
+
+        redoBtn = createGameButton("Redo", Color.rgb(138, 43, 226));
+        redoBtn.setOnAction(e -> {
+            redoMove();
+            root.requestFocus();
+        });
+        redoBtn.setDisable(true);
+
+        HBox undoControls = new HBox(10);
+        undoControls.getChildren().addAll(undoBtn, redoBtn);
+
+        // Switches between the last few moves and the whole game; the history is cleared
+        Button historyBtn = createGameButton("History: " + MAX_UNDO_STEPS, Color.rgb(147, 112, 219));
+        historyBtn.setOnAction(e -> {
+            unlimitedUndo = !unlimitedUndo;
+            gameHistory = unlimitedUndo ? new UndoLog(n) : new UndoRing(n, MAX_UNDO_STEPS);
+            historyBtn.setText(unlimitedUndo ? "History: All" : "History: " + MAX_UNDO_STEPS);
+            redoBtn.setDisable(true);
+            root.requestFocus();
+        });
 
         Button backBtn = createGameButton("Back", Color.rgb(255, 69, 0));
-        backBtn.setOnAction(e -> goHome.run());
+        backBtn.setOnAction(e -> {
+            stopAutoPlay();
+            hintService.cancel();
+            stopRecording();
+            goHome.run();
+        });
+
+        Button hintBtn = createGameButton("Hint", Color.rgb(34, 139, 34));
+        hintBtn.setOnAction(e -> {
+            requestHint();
+            root.requestFocus();
+        });
+
+        Button autoHintBtn = createGameButton("Auto Hint", Color.rgb(0, 128, 128));
+        autoHintBtn.setOnAction(e -> {
+            autoHint = !autoHint;
+            autoHintBtn.setText(autoHint ? "Auto Hint ✓" : "Auto Hint");
+            if (autoHint) {
+                requestHint();
+            } else {
+                clearHint();
+            }
+            root.requestFocus();
+        });
         
+        autoPlayBtn = createGameButton("Auto Play", Color.rgb(218, 112, 214));
+        autoPlayBtn.setOnAction(e -> {
+            if (autoPlayer.isRunning()) {
+                stopAutoPlay();
+            } else {
+                startAutoPlay();
+            }
+            root.requestFocus();
+        });
+
+        // Policy and speed of the auto player, each button cycles through the choices
+        Button policyBtn = createGameButton(autoPlayer.getPolicy().getLabel(), Color.rgb(186, 85, 211));
+        policyBtn.setOnAction(e -> {
+            autoPlayer.setPolicy(autoPlayer.getPolicy().next());
+            policyBtn.setText(autoPlayer.getPolicy().getLabel());
+            root.requestFocus();
+        });
+
+        Button speedBtn = createGameButton(autoPlayer.getSpeed().getLabel(), Color.rgb(186, 85, 211));
+        speedBtn.setOnAction(e -> {
+            autoPlayer.setSpeed(autoPlayer.getSpeed().next());
+            speedBtn.setText(autoPlayer.getSpeed().getLabel());
+            root.requestFocus();
+        });
+
+        HBox autoPlayOptions = new HBox(10);
+        autoPlayOptions.getChildren().addAll(policyBtn, speedBtn);
+
         Button closeBtn = createGameButton("Close", Color.rgb(220, 53, 69));
         closeBtn.setOnAction(e -> {
-            // Save data before closing
-            if (currentPlayer != null) {
-                currentPlayer.addToScore(score);
-                AccountManager.saveAllAccounts();
+            // The score is credited only if the replay verifies, as at game over
+            long finalScore = score;
+            Account closingPlayer = currentPlayer;
+            byte[] recorded = stopRecording();
+            if (closingPlayer == null || recorded == null) {
+                System.exit(0);
+                return;
             }
-            System.exit(0);
+            // Verified in the background; the game is frozen until the verdict closes the window
+            closeBtn.setDisable(true);
+            stopAutoPlay();
+            input.pause();
+            verifyReplay(recorded, finalScore).whenComplete((verdict, error) -> Platform.runLater(() -> {
+                if (verdict != null && verdict.isValid()) {
+                    AccountManager.addScoreAndSave(closingPlayer, finalScore);
+                }
+                System.exit(0);
+            }));
         });
         
-        controls.getChildren().addAll(restartBtn, undoBtn, backBtn, closeBtn);
+        controls.getChildren().addAll(restartBtn, undoControls, historyBtn, hintBtn, autoHintBtn, autoPlayBtn, autoPlayOptions,
+                backBtn, closeBtn);
 
         // Add all UI elements to the panel
-        uiPanel.getChildren().addAll(playerInfo, gameScoreInfo, controls);
+        uiPanel.getChildren().addAll(playerInfo, gameScoreInfo, hintInfo, controls);
         root.getChildren().add(uiPanel);
 
         // Add game instructions on the left side
@@ -350,211 +415,313 @@ public class GameScene {
                                            instructionsText3, instructionsText4, instructionsText5);
         root.getChildren().add(instructionsBox);
 
-        // Start game with two random tiles
-        randomFillNumber();
-        randomFillNumber();
-
-        // Initialize score display
-        updateScoreDisplay();
-        
-        // Force a second score update to ensure visibility
-        Platform.runLater(() -> {
-            updateScoreDisplay();
-            System.out.println("Score display initialized and updated");
-        });
-        
-        // Ensure focus is maintained when scene is shown
-        primaryStage.setOnShown(e -> {
-            System.out.println("Stage shown - requesting focus");
-            Platform.runLater(() -> {
-                root.requestFocus();
-                System.out.println("Focus requested after stage shown");
-            });
-        });
-        
         // Also request focus when the root is added to the scene
         root.setOnMouseClicked(e -> {
             root.requestFocus();
             System.out.println("Mouse clicked - requesting focus");
         });
 
-        // Handle arrow key presses with improved event handling
-        gameScene.setOnKeyPressed(key -> {
-            System.out.println("Scene Key Event: " + key.getCode() + " received");
-            Platform.runLater(() -> {
-                boolean moved = false;
-                System.out.println("Processing key: " + key.getCode());
-
-                if (key.getCode() == KeyCode.LEFT) {
-                    System.out.println("Moving LEFT");
-                    moved = moveLeft();
-                } else if (key.getCode() == KeyCode.RIGHT) {
-                    System.out.println("Moving RIGHT");
-                    moved = moveRight();
-                } else if (key.getCode() == KeyCode.UP) {
-                    System.out.println("Moving UP");
-                    moved = moveUp();
-                } else if (key.getCode() == KeyCode.DOWN) {
-                    System.out.println("Moving DOWN");
-                    moved = moveDown();
-                }
+        // One filter on the scene handles the arrow keys, whichever node has focus
+        input = new InputDispatcher(direction -> processKey(direction, endGameScene, endGameRoot, primaryStage,
+                onRestart, goHome));
+        attach();
 
-                System.out.println("Moved: " + moved);
-                
-                // Always update score display
-                updateScoreDisplay();
-
-                if (!hasShownWinAlert && reached2048()) {
-                    hasShownWinAlert = true;
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("You Win!");
-                    alert.setHeaderText("Congratulations!");
-                    alert.setContentText("You created the 2048 tile! Continue playing to set a higher score.");
-                    alert.showAndWait();
-                }
+        // Start game with two random tiles
+        startTiles();
 
-                if (moved) {
-                    saveGameState();
-                    randomFillNumber();
-                    // Update score display after move
-                    updateScoreDisplay();
-                }
+        // Initialize score display
+        updateScoreDisplay();
 
-                if (isFull() && canNotMove()) {
-                    EndGame.getInstance().endGameShow(
-                            endGameScene, endGameRoot, primaryStage, score, onRestart, goHome, currentPlayer
-                    );
-                }
-            });
+        // Also handle root focus events
+        root.focusedProperty().addListener((observable, oldValue, newValue) -> {
+            System.out.println("Root focus changed: " + oldValue + " -> " + newValue);
         });
+    }
 
-        // Also add key event handler to the root group as backup
-        root.setOnKeyPressed(key -> {
-            System.out.println("Root Key Event: " + key.getCode() + " received");
-            Platform.runLater(() -> {
-                boolean moved = false;
-                System.out.println("Processing root key: " + key.getCode());
-
-                if (key.getCode() == KeyCode.LEFT) {
-                    System.out.println("Moving LEFT");
-                    moved = moveLeft();
-                } else if (key.getCode() == KeyCode.RIGHT) {
-                    System.out.println("Moving RIGHT");
-                    moved = moveRight();
-                } else if (key.getCode() == KeyCode.UP) {
-                    System.out.println("Moving UP");
-                    moved = moveUp();
-                } else if (key.getCode() == KeyCode.DOWN) {
-                    System.out.println("Moving DOWN");
-                    moved = moveDown();
-                }
+    /**
+     * Starts a new game on the scene built by {@link #game}, for a player
+     * who may have changed. The nodes, the board's tile pool and the engine
+     * are reused, so a restart only resets them.
+     *
+     * @param player current player's account
+     */
+    public void restart(Account player) {
+        this.currentPlayer = player;
+        playerNameText.setText(player.getUserName());
+        totalScoreText.setText(String.valueOf(player.getScore()));
+        attach();
+        resetGame();
+    }
 
-                System.out.println("Moved: " + moved);
-                
-                // Always update score display
-                updateScoreDisplay();
-
-                if (!hasShownWinAlert && reached2048()) {
-                    hasShownWinAlert = true;
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("You Win!");
-                    alert.setHeaderText("Congratulations!");
-                    alert.setContentText("You created the 2048 tile! Continue playing to set a higher score.");
-                    alert.showAndWait();
-                }
+    /**
+     * Registers what this game needs from the stage for as long as its
+     * scene is shown: keyboard input, and focus requests when the stage is
+     * shown or focused. It is all released when the scene leaves the stage.
+     */
+    private void attach() {
+        if (subscriptions != null) {
+            subscriptions.close();
+        }
+        subscriptions = new Subscriptions();
+        subscriptions.onClose(this::release);
 
-                if (moved) {
-                    saveGameState();
-                    randomFillNumber();
-                    // Update score display after move
-                    updateScoreDisplay();
-                }
+        // Immediately request focus so arrow keys work right away
+        Platform.runLater(root::requestFocus);
+        
+        // Additional focus request after a short delay
+        subscriptions.schedule(root::requestFocus, 100); // 100ms delay
 
-                if (isFull() && canNotMove()) {
-                    EndGame.getInstance().endGameShow(
-                            endGameScene, endGameRoot, primaryStage, score, onRestart, goHome, currentPlayer
-                    );
-                }
-            });
-        });
+        // Ensure focus is maintained when scene is shown
+        subscriptions.handle(primaryStage, WindowEvent.WINDOW_SHOWN, e -> Platform.runLater(root::requestFocus));
+        
+        input.install(gameScene);
+        subscriptions.onClose(() -> input.uninstall(gameScene));
 
         // Handle window focus events to ensure key events work
-        primaryStage.focusedProperty().addListener((observable, oldValue, newValue) -> {
+        subscriptions.listen(primaryStage.focusedProperty(), (observable, oldValue, newValue) -> {
             if (newValue) {
-                System.out.println("Window gained focus - requesting root focus");
-                Platform.runLater(() -> {
-                    root.requestFocus();
-                    System.out.println("Root focus requested after window focus");
-                    
-                    // Also ensure score is visible
-                    if (scoreText != null) {
-                        scoreText.setText(String.valueOf(score));
-                        System.out.println("Score refreshed after window focus: " + score);
-                    }
-                });
+                Platform.runLater(root::requestFocus);
             }
         });
-        
-        // Also handle root focus events
-        root.focusedProperty().addListener((observable, oldValue, newValue) -> {
-            System.out.println("Root focus changed: " + oldValue + " -> " + newValue);
-        });
-        
-        // Add key event listener to the primary stage as additional backup
-        primaryStage.addEventHandler(KeyEvent.KEY_PRESSED, key -> {
-            System.out.println("Stage Key Event: " + key.getCode() + " received");
-            if (key.getCode() == KeyCode.LEFT || key.getCode() == KeyCode.RIGHT || 
-                key.getCode() == KeyCode.UP || key.getCode() == KeyCode.DOWN) {
-                
-                Platform.runLater(() -> {
-                    boolean moved = false;
-                    System.out.println("Processing stage key: " + key.getCode());
-
-                    if (key.getCode() == KeyCode.LEFT) {
-                        System.out.println("Moving LEFT");
-                        moved = moveLeft();
-                    } else if (key.getCode() == KeyCode.RIGHT) {
-                        System.out.println("Moving RIGHT");
-                        moved = moveRight();
-                    } else if (key.getCode() == KeyCode.UP) {
-                        System.out.println("Moving UP");
-                        moved = moveUp();
-                    } else if (key.getCode() == KeyCode.DOWN) {
-                        System.out.println("Moving DOWN");
-                        moved = moveDown();
-                    }
-
-                    System.out.println("Stage move result: " + moved);
-                    
-                    // Always update score display
-                    updateScoreDisplay();
-
-                    if (!hasShownWinAlert && reached2048()) {
-                        hasShownWinAlert = true;
-                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                        alert.setTitle("You Win!");
-                        alert.setHeaderText("Congratulations!");
-                        alert.setContentText("You created the 2048 tile! Continue playing to set a higher score.");
-                        alert.showAndWait();
-                    }
-
-                    if (moved) {
-                        saveGameState();
-                        randomFillNumber();
-                        // Update score display after move
-                        updateScoreDisplay();
-                    }
-
-                    if (isFull() && canNotMove()) {
-                        EndGame.getInstance().endGameShow(
-                                endGameScene, endGameRoot, primaryStage, score, onRestart, goHome, currentPlayer
-                        );
-                    }
-                });
-            }
+    }
+
+    /**
+     * Applies a move from the input dispatcher: moves the tiles, spawns a new tile,
+     * shows the win alert once and switches to the end game screen when no
+     * moves remain. The engine tracks the win and game-over state as it
+     * moves, so these checks and the single score update cost the same on
+     * every board size.
+     *
+     * @param direction    the move to make
+     * @param endGameScene scene to show when game ends
+     * @param endGameRoot  root of the endgame screen
+     * @param primaryStage stage reference
+     * @param onRestart    callback to restart the game
+     * @param goHome       callback to return to home screen
+     */
+    private void processKey(Direction direction, Scene endGameScene, Group endGameRoot, Stage primaryStage,
+                            Runnable onRestart, Runnable goHome) {
+        if (autoPlayer.isRunning()) {
+            return;
+        }
+
+        boolean moved = moveWithEngine(direction);
+        if (!moved) {
+            // Nothing changed, so the score, the status and any hint are still current
+            return;
+        }
+
+        // The board changed, so any running hint search is stale
+        clearHint();
+        if (autoHint) {
+            requestHint();
+        }
+
+        updateScoreDisplay();
+
+        if (!hasShownWinAlert && engine.hasWon()) {
+            hasShownWinAlert = true;
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("You Win!");
+            alert.setHeaderText("Congratulations!");
+            alert.setContentText("You created the 2048 tile! Continue playing to set a higher score.");
+            // Keys pressed while the alert is open are held until it closes
+            input.pause();
+            alert.showAndWait();
+            input.resume();
+        }
+
+        showEndGameIfOver(endGameScene, endGameRoot, primaryStage, onRestart, goHome);
+    }
+
+    /**
+     * Stops everything still running for this game once its scene has been
+     * left: auto play, the hint search and the recording.
+     */
+    private void release() {
+        stopAutoPlay();
+        hintService.cancel();
+        stopRecording();
+        LOGGER.fine(() -> "Game scene released. " + boardView.getStatistics());
+    }
+
+    /**
+     * Switches to the end game screen when no moves remain.
+     *
+     * @param endGameScene scene to show when game ends
+     * @param endGameRoot  root of the endgame screen
+     * @param primaryStage stage reference
+     * @param onRestart    callback to restart the game
+     * @param goHome       callback to return to home screen
+     */
+    private void showEndGameIfOver(Scene endGameScene, Group endGameRoot, Stage primaryStage,
+                                   Runnable onRestart, Runnable goHome) {
+        if (engine.isOver()) {
+            byte[] recorded = stopRecording();
+            // The end screen credits the score when the replay passes
+            CompletableFuture<ReplayVerifier.Verdict> verification = recorded == null
+                    ? CompletableFuture.completedFuture(null)
+                    : verifyReplay(recorded, score);
+            EndGame.getInstance().endGameShow(
+                    endGameScene, endGameRoot, primaryStage, score, onRestart, goHome, currentPlayer, verification
+            );
+        }
+    }
+
+    /**
+     * Re-simulates a finished replay off the FX thread to check a score.
+     *
+     * @param recorded   the replay bytes
+     * @param finalScore the score the replay should end on
+     * @return completes with the verdict
+     */
+    private static CompletableFuture<ReplayVerifier.Verdict> verifyReplay(byte[] recorded, long finalScore) {
+        return CompletableFuture.supplyAsync(() -> new ReplayVerifier()
+                .verify(ReplayReader.wrap(ByteBuffer.wrap(recorded)), finalScore));
+    }
+
+    /**
+     * Starts the auto player. The current board is saved first, so undo
+     * returns to where auto play began.
+     */
+    private void startAutoPlay() {
+        if (engine.isOver()) {
+            return;
+        }
+        clearHint();
+        beforeMove.copyFrom(engine.getBoard());
+        autoPlayStartScore = engine.getScore();
+        autoPlayer.start();
+        autoPlayBtn.setText("Auto Play ✓");
+    }
+
+    /**
+     * Stops the auto player, if running, and records the whole run as one
+     * move in the undo history.
+     */
+    private void stopAutoPlay() {
+        if (autoPlayer.isRunning() && engine.getBoard().diffMask(beforeMove) != 0) {
+            recordMove(autoPlayStartScore);
+        }
+        autoPlayer.stop();
+        autoPlayBtn.setText("Auto Play");
+    }
+
+    /**
+     * Renders the latest board after a pulse of auto play moves. The win
+     * alert is skipped so long runs are not interrupted.
+     *
+     * @param endGameScene scene to show when game ends
+     * @param endGameRoot  root of the endgame screen
+     * @param primaryStage stage reference
+     * @param onRestart    callback to restart the game
+     * @param goHome       callback to return to home screen
+     */
+    private void afterAutoPlayStep(Scene endGameScene, Group endGameRoot, Stage primaryStage,
+                                   Runnable onRestart, Runnable goHome) {
+        score = engine.getScore();
+        renderBoard();
+        updateScoreDisplay();
+        if (engine.hasWon()) {
+            hasShownWinAlert = true;
+        }
+        if (engine.isOver()) {
+            stopAutoPlay();
+            Platform.runLater(() -> showEndGameIfOver(endGameScene, endGameRoot, primaryStage, onRestart, goHome));
+        }
+    }
+
+    /**
+     * Starts a background search for the best move on the current board and
+     * shows its direction as an arrow once it arrives.
+     */
+    private void requestHint() {
+        if (engine.isOver()) {
+            return;
+        }
+        int legal = engine.getLegalMoves();
+        if (Integer.bitCount(legal) == 1) {
+            // Only one move is possible, no search needed
+            hintService.cancel();
+            hintText.setText(arrowFor(Direction.fromCode(Integer.numberOfTrailingZeros(legal))));
+            return;
+        }
+        hintText.setText("…");
+        hintService.request(engine.getBoard(), direction -> {
+            hintText.setText(direction == null ? "" : arrowFor(direction));
+            LOGGER.fine(() -> "Hint: " + direction + " " + hintService.getTableStatistics());
         });
     }
 
+    /**
+     * Cancels any running hint search and clears the suggested move.
+     */
+    private void clearHint() {
+        hintService.cancel();
+        hintText.setText("");
+    }
+
+    /**
+     * Returns the arrow symbol shown for a suggested move.
+     *
+     * @param direction the suggested move
+     * @return an arrow character
+     */
+    private static String arrowFor(Direction direction) {
+        return switch (direction) {
+            case LEFT -> "←";
+            case RIGHT -> "→";
+            case UP -> "↑";
+            case DOWN -> "↓";
+        };
+    }
+
+    /**
+     * Moves the tiles through the headless engine and renders the result.
+     * The engine also spawns the new tile, so the board is copied before the
+     * move and recorded in the undo history with the spawned tile. The
+     * successor boards are usually computed already, so the move only
+     * commits one of them.
+     *
+     * @param direction the move to make
+     * @return {@code true} if the board changed
+     */
+    private boolean moveWithEngine(Direction direction) {
+        if (!engine.isLegal(direction)) {
+            // Known no-op moves are ignored without taking a snapshot
+            return false;
+        }
+        beforeMove.copyFrom(engine.getBoard());
+        long scoreBefore = engine.getScore();
+        engine.move(direction);
+        recordMove(scoreBefore);
+        score = engine.getScore();
+        // Only the tiles the move slid, merged or spawned are updated
+        boardView.apply(moveChanges, engine.getBoard());
+        Platform.runLater(engine::prepareSuccessors);
+        return true;
+    }
+
+    /**
+     * Copies the engine board into the cell grid, then schedules the
+     * successor boards of the new position to be computed once this event
+     * is handled, while the player decides on the next move.
+     */
+    private void renderBoard() {
+        boardView.render(engine.getBoard());
+        Platform.runLater(engine::prepareSuccessors);
+    }
+
+    /**
+     * Renders only the given cells of the engine board.
+     *
+     * @param changed bit {@code row * n + col} set for every cell to redraw
+     */
+    private void renderCells(long changed) {
+        boardView.renderCells(engine.getBoard(), changed);
+        Platform.runLater(engine::prepareSuccessors);
+    }
+
     /**
      * Updates the score display text.
      */
@@ -618,116 +785,119 @@ public class GameScene {
     }
 
     /**
-     * Saves the current game state for undo functionality.
+     * Starts a new engine game and renders its two starting tiles.
      */
-    private void saveGameState() {
-        int[][] boardState = new int[n][n];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                boardState[i][j] = cells[i][j].getNumber();
-            }
-        }
-        
-        GameState state = new GameState(boardState, score);
-        gameHistory.push(state);
-        
-        // Limit undo history
-        if (gameHistory.size() > MAX_UNDO_STEPS) {
-            gameHistory.remove(0);
-        }
+    private void startTiles() {
+        engine.start();
+        LOGGER.fine(() -> "Game seed: " + engine.getSeed());
+        startRecording();
+        renderBoard();
     }
 
     /**
-     * Undoes the last move by restoring the previous game state.
+     * Starts recording the new game to a replay file, beginning with its two
+     * starting tiles. The engine then reports every move to the recorder,
+     * including the moves made by auto play.
      */
-    private void undoMove() {
-        if (gameHistory.isEmpty()) {
+    private void startRecording() {
+        stopRecording();
+        try {
+            replayFile = DataManager.newReplayFile(n, engine.getSeed());
+            replay = ReplayWriter.create(replayFile, engine);
+        } catch (IOException e) {
+            System.err.println("Game will not be recorded: " + e.getMessage());
             return;
         }
-        
-        GameState previousState = gameHistory.pop();
-        int[][] board = previousState.getBoard();
-        
-        // Restore board state
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                cells[i][j].setNumber(board[i][j]);
-                if (board[i][j] != 0) {
-                    Text text = textMaker.madeText(String.valueOf(board[i][j]),
-                            cells[i][j].getX(), cells[i][j].getY());
-                    cells[i][j].setTextNode(text);
-                    cells[i][j].attachTextToRoot();
-                } else {
-                    cells[i][j].removeText();
-                }
-            }
-        }
-        
-        // Restore score
-        score = previousState.getScore();
-        scoreText.setText(score + "");
+        engine.setMoveListener(replay);
     }
 
     /**
-     * Places a new tile (2 or 4) at a random empty position.
+     * Finishes the replay file of the current game, if one is being written,
+     * and hands it to the replay archive, which adds it in the background.
+     * Games without a move are dropped.
+     *
+     * @return the finished replay, or {@code null} if none was saved
      */
-    private void randomFillNumber() {
-        Cell[][] emptyCells = new Cell[n][n];
-        int a = 0, b = 0, aForBound = 0, bForBound = 0;
-
-        outer:
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                if (cells[i][j].getNumber() == 0) {
-                    emptyCells[a][b] = cells[i][j];
-                    if (b < n - 1) {
-                        bForBound = b;
-                        b++;
-                    } else {
-                        aForBound = a;
-                        a++;
-                        b = 0;
-                        if (a == n) break outer;
-                    }
-                }
+    private byte[] stopRecording() {
+        if (replay == null) {
+            return null;
+        }
+        engine.setMoveListener(null);
+        boolean played = replay.getSteps() > 0;
+        byte[] recorded = null;
+        try {
+            replay.close();
+            if (played) {
+                recorded = Files.readAllBytes(replayFile);
+                DataManager.archiveReplay(replayFile, currentPlayer == null ? "" : currentPlayer.getUserName(),
+                        System.currentTimeMillis());
+            } else {
+                Files.deleteIfExists(replayFile);
             }
+        } catch (IOException e) {
+            System.err.println("Failed to save replay: " + e.getMessage());
         }
+        replay = null;
+        return recorded;
+    }
 
-        int xCell = (int) (Math.random() * (aForBound + 1));
-        int yCell = (int) (Math.random() * (bForBound + 1));
-        int number = Math.random() < 0.5 ? 2 : 4;
-
-        Text text = textMaker.madeText(String.valueOf(number),
-                emptyCells[xCell][yCell].getX(),
-                emptyCells[xCell][yCell].getY());
+    /**
+     * Records the move from {@code beforeMove} to the current engine board
+     * in the undo history.
+     *
+     * @param scoreBefore the score before the move
+     */
+    private void recordMove(long scoreBefore) {
+        gameHistory.record(beforeMove, scoreBefore, engine.getBoard(), engine.getScore());
+        redoBtn.setDisable(true);
+    }
 
-        emptyCells[xCell][yCell].setTextNode(text);
-        emptyCells[xCell][yCell].attachTextToRoot();
-        emptyCells[xCell][yCell].applyNewValue(number);
+    /**
+     * Undoes the last move by restoring the previous game state.
+     */
+    private void undoMove() {
+        stopAutoPlay();
+        if (!gameHistory.canUndo()) {
+            return;
+        }
+        restored.copyFrom(engine.getBoard());
+        restoreFromHistory(gameHistory.undo(restored));
     }
 
     /**
-     * @return true if a tile with value 2048 exists
+     * Replays the last undone move, when the history keeps the whole game.
      */
-    private boolean reached2048() {
-        for (Cell[] row : cells) {
-            for (Cell cell : row) {
-                if (cell.getNumber() == 2048) return true;
-            }
+    private void redoMove() {
+        stopAutoPlay();
+        if (!gameHistory.canRedo()) {
+            return;
         }
-        return false;
+        restored.copyFrom(engine.getBoard());
+        restoreFromHistory(gameHistory.redo(restored));
     }
 
     /**
-     * @return true if the board has no empty tiles
+     * Loads the board left in {@code restored} into the engine and redraws
+     * only the cells that differ from the board shown before.
+     *
+     * @param restoredScore the score that goes with the restored board
      */
-    private boolean isFull() {
-        for (Cell[] row : cells) {
-            for (Cell cell : row) {
-                if (cell.getNumber() == 0) return false;
-            }
+    private void restoreFromHistory(long restoredScore) {
+        long changed = restored.diffMask(engine.getBoard());
+        engine.restore(restored, restoredScore);
+        if (replay != null) {
+            replay.recordRestore();
         }
-        return true;
+        renderCells(changed);
+        redoBtn.setDisable(!gameHistory.canRedo());
+        clearHint();
+        if (autoHint) {
+            requestHint();
+        }
+
+        // Restore score
+        score = restoredScore;
+        scoreText.setText(score + "");
     }
 
     /**
@@ -738,179 +908,25 @@ public class GameScene {
         // Reset score
         score = 0;
         
-        // Clear all cells and their visual elements from the root
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                if (cells[i][j] != null) {
-                    // Remove all visual elements (background and text) from the root
-                    cells[i][j].removeAllVisuals();
-                    cells[i][j] = null;
-                }
-            }
-        }
+        // Return every tile to the board's pool
+        boardView.rebuild();
         
         // Clear game history
+        stopAutoPlay();
         gameHistory.clear();
+        redoBtn.setDisable(true);
         hasShownWinAlert = false;
-        
-        // Initialize new cells array
-        cells = new Cell[n][n];
-        
-        // Recreate all cells with fresh visual elements
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                cells[i][j] = new Cell(
-                    boardX + (j) * LENGTH + (j + 1) * distanceBetweenCells,
-                    boardY + (i) * LENGTH + (i + 1) * distanceBetweenCells, 
-                    LENGTH, 
-                    root
-                );
-                
-                // Add click handler to each cell
-                final int row = i;
-                final int col = j;
-                cells[i][j].setOnMouseClicked(e -> {
-                    System.out.println("Clicked cell at [" + row + "][" + col + "] with value: " + cells[row][col].getNumber());
-                });
-            }
-        }
+        clearHint();
         
         // Add two initial random tiles
-        randomFillNumber();
-        randomFillNumber();
+        startTiles();
+        if (autoHint) {
+            requestHint();
+        }
         
         // Update score display
         updateScoreDisplay();
         
         System.out.println("Game reset - new game started");
     }
-
-    // --- Movement handlers ---
-
-    private boolean moveLeft() {
-        boolean moved = false;
-        System.out.println("moveLeft() called");
-        for (int i = 0; i < n; i++) {
-            for (int j = 1; j < n; j++) {
-                if (cells[i][j].getNumber() != 0) {
-                    System.out.println("Moving cell [" + i + "][" + j + "] with value " + cells[i][j].getNumber());
-                    moved |= moveHorizontally(i, j, passDestination(i, j, 'l'), -1);
-                }
-            }
-            for (int j = 0; j < n; j++) cells[i][j].setModified(false);
-        }
-        System.out.println("moveLeft() result: " + moved);
-        return moved;
-    }
-
-    private boolean moveRight() {
-        boolean moved = false;
-        for (int i = 0; i < n; i++) {
-            for (int j = n - 2; j >= 0; j--) {
-                moved |= moveHorizontally(i, j, passDestination(i, j, 'r'), 1);
-            }
-            for (int j = 0; j < n; j++) cells[i][j].setModified(false);
-        }
-        return moved;
-    }
-
-    private boolean moveUp() {
-        boolean moved = false;
-        for (int j = 0; j < n; j++) {
-            for (int i = 1; i < n; i++) {
-                moved |= moveVertically(i, j, passDestination(i, j, 'u'), -1);
-            }
-            for (int i = 0; i < n; i++) cells[i][j].setModified(false);
-        }
-        return moved;
-    }
-
-    private boolean moveDown() {
-        boolean moved = false;
-        for (int j = 0; j < n; j++) {
-            for (int i = n - 2; i >= 0; i--) {
-                moved |= moveVertically(i, j, passDestination(i, j, 'd'), 1);
-            }
-            for (int i = 0; i < n; i++) cells[i][j].setModified(false);
-        }
-        return moved;
-    }
-
-    /**
-     * Determines how far a tile can travel in a direction until it hits another tile.
-     */
-    private int passDestination(int i, int j, char direction) {
-        int coord = (direction == 'l' || direction == 'r') ? j : i;
-        int step = (direction == 'l' || direction == 'u') ? -1 : 1;
-
-        while (true) {
-            int ni = (direction == 'l' || direction == 'r') ? i : coord + step;
-            int nj = (direction == 'l' || direction == 'r') ? coord + step : j;
-
-            if (ni < 0 || ni >= n || nj < 0 || nj >= n) break;
-            if (cells[ni][nj].getNumber() != 0) break;
-
-            coord += step;
-        }
-        return coord;
-    }
-
-    // --- Merge and move validation ---
-
-    private boolean isValidDesH(int i, int j, int des, int sign) {
-        int target = des + sign;
-        return target >= 0 && target < n &&
-                cells[i][target].getNumber() == cells[i][j].getNumber() &&
-                !cells[i][target].isModified() &&
-                cells[i][target].getNumber() != 0;
-    }
-
-    private boolean isValidDesV(int i, int j, int des, int sign) {
-        int target = des + sign;
-        return target >= 0 && target < n &&
-                cells[target][j].getNumber() == cells[i][j].getNumber() &&
-                !cells[target][j].isModified() &&
-                cells[target][j].getNumber() != 0;
-    }
-
-    private boolean moveHorizontally(int i, int j, int des, int sign) {
-        if (isValidDesH(i, j, des, sign)) {
-            score += cells[i][j].mergeInto(cells[i][des + sign]);
-            cells[i][des].setModified(true);
-            updateScoreDisplay();
-            return true;
-        } else if (des != j) {
-            cells[i][j].swapContent(cells[i][des]);
-            return true;
-        }
-        return false;
-    }
-
-    private boolean moveVertically(int i, int j, int des, int sign) {
-        if (isValidDesV(i, j, des, sign)) {
-            score += cells[i][j].mergeInto(cells[des + sign][j]);
-            cells[des][j].setModified(true);
-            updateScoreDisplay();
-            return true;
-        } else if (des != i) {
-            cells[i][j].swapContent(cells[des][j]);
-            return true;
-        }
-        return false;
-    }
-
-    /**
-     * Checks if the board is full and no valid moves remain.
-     *
-     * @return {@code true} if no moves possible
-     */
-    private boolean canNotMove() {
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                if (i < n - 1 && cells[i][j].getNumber() == cells[i + 1][j].getNumber()) return false;
-                if (j < n - 1 && cells[i][j].getNumber() == cells[i][j + 1].getNumber()) return false;
-            }
-        }
-        return true;
-    }
 }
@@ -0,0 +1,115 @@
+package com.example.demo.scene;
+
+import com.example.demo.ai.Expectimax;
+import com.example.demo.ai.TranspositionTable;
+import com.example.demo.data.DataManager;
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.PackedBoard;
+import javafx.application.Platform;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Computes move hints with an {@link Expectimax} search on a background thread.
+ * <p>
+ * Requests and cancellations are made on the JavaFX thread. The search runs on
+ * a shared daemon executor and delivers its result back through
+ * {@link Platform#runLater}, so key handling is never blocked. Starting a new
+ * request or calling {@link #cancel()} interrupts the running search and
+ * discards any result that has not been delivered yet.
+ * <p>
+ * Leaves are scored with the learned n-tuple network when weights for the
+ * board size have been trained, and with the heuristic otherwise.
+ */
+public class HintService {
+
+    /** Default wall-clock budget of one hint search in milliseconds */
+    public static final long DEFAULT_BUDGET_MILLIS = 50;
+
+    /** Memory given to the transposition table of the hint search */
+    public static final long TABLE_BYTES = 16L << 20;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "hint-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int boardSize;
+    private final int maxDepth;
+    private Expectimax search;
+    private volatile long budgetMillis = DEFAULT_BUDGET_MILLIS;
+    private Future<?> pending;
+    private int generation;
+
+    /**
+     * Creates a hint service for one board size.
+     *
+     * @param boardSize number of rows and columns of the game
+     * @param maxDepth  maximum number of player moves to look ahead
+     */
+    public HintService(int boardSize, int maxDepth) {
+        this.boardSize = boardSize;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Sets the time budget used by subsequent searches.
+     *
+     * @param budgetMillis wall-clock budget in milliseconds
+     */
+    public void setBudgetMillis(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Starts searching for the best move, cancelling any running search.
+     *
+     * @param board    the current board; copied before the search starts
+     * @param onResult called on the JavaFX thread with the suggested move,
+     *                 or {@code null} if no move is legal
+     */
+    public void request(PackedBoard board, Consumer<Direction> onResult) {
+        cancel();
+        if (search == null) {
+            // Allocated on first use; the table is kept across hints of this game
+            search = new Expectimax(boardSize, maxDepth, TranspositionTable.withMemory(TABLE_BYTES),
+                    DataManager.loadEvaluator(boardSize));
+        }
+        Expectimax searcher = search;
+        PackedBoard snapshot = new PackedBoard(board);
+        int requestId = generation;
+        pending = EXECUTOR.submit(() -> {
+            Direction best = searcher.bestMove(snapshot, budgetMillis);
+            if (Thread.currentThread().isInterrupted()) return;
+            Platform.runLater(() -> {
+                if (requestId == generation) {
+                    onResult.accept(best);
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns the transposition table statistics of this service's search.
+     *
+     * @return hit, miss and eviction counts, or an empty string before the first hint
+     */
+    public String getTableStatistics() {
+        return search == null ? "" : search.getTable().toString();
+    }
+
+    /**
+     * Stops the running search, if any, and drops its pending result.
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+}
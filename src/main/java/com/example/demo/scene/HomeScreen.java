@@ -26,14 +26,20 @@ import java.util.List;
  *   <li>Edit and switch between existing profiles</li>
  *   <li>View recent scores</li>
  *   <li>Read game rules</li>
+ *   <li>Watch recorded games</li>
  *   <li>Exit the application</li>
  * </ul>
  */
 public class HomeScreen {
     private final Stage stage;
     private final Runnable onStartNewGame;
+    private final Runnable onShowReplays;
     private Account currentPlayer;
     private int selectedBoardSize = 6; // Default board size - changed to 6x6
+    // Built on the first show and kept, with the texts that follow the current player
+    private Scene scene;
+    private Text usernameDisplay;
+    private Text statsText;
 
     /**
      * Constructs the HomeScreen with a player and a callback for starting a new game.
@@ -41,11 +47,13 @@ public class HomeScreen {
      * @param stage           the primary stage of the application
      * @param currentPlayer   the currently logged-in player
      * @param onStartNewGame  callback to launch the game scene
+     * @param onShowReplays   callback to open the replay viewer
      */
-    public HomeScreen(Stage stage, Account currentPlayer, Runnable onStartNewGame) {
+    public HomeScreen(Stage stage, Account currentPlayer, Runnable onStartNewGame, Runnable onShowReplays) {
         this.stage = stage;
         this.currentPlayer = currentPlayer;
         this.onStartNewGame = onStartNewGame;
+        this.onShowReplays = onShowReplays;
         
         // Set default board size to 6x6
         GameScene.setN(6);
@@ -53,8 +61,23 @@ public class HomeScreen {
 
     /**
      * Displays the home screen with title, buttons, and user interaction controls.
+     * The screen is built on the first call; later calls show it again with
+     * the player's name and score brought up to date, keeping the board size
+     * chosen before.
      */
     public void show() {
+        if (scene == null) {
+            build();
+        }
+        refreshPlayer();
+        stage.setScene(scene);
+        stage.show();
+    }
+
+    /**
+     * Builds the home screen's scene.
+     */
+    private void build() {
         // Main layout
         VBox layout = new VBox(0); // No spacing between main sections
         layout.setAlignment(Pos.TOP_CENTER);
@@ -107,7 +130,7 @@ public class HomeScreen {
                 if (!name.trim().isEmpty()) {
                     currentPlayer = AccountManager.findOrCreateAccount(name.trim());
                     DataManager.saveLastPlayer(currentPlayer);
-                    // Update the display - we'll need to refresh this
+                    refreshPlayer();
                 }
             });
         });
@@ -123,7 +146,7 @@ public class HomeScreen {
             dialog.showAndWait().ifPresent(name -> {
                 currentPlayer = AccountManager.findOrCreateAccount(name.trim());
                 DataManager.saveLastPlayer(currentPlayer);
-                // Update the display - we'll need to refresh this
+                refreshPlayer();
             });
         });
 
@@ -177,12 +200,12 @@ public class HomeScreen {
         playerLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
         playerLabel.setFill(Color.rgb(80, 80, 100));
         
-        Text usernameDisplay = new Text(currentPlayer.getUserName());
+        usernameDisplay = new Text();
         usernameDisplay.setFont(Font.font("Arial", FontWeight.BOLD, 28));
         usernameDisplay.setFill(Color.rgb(255, 140, 0));
         
         // Show player stats
-        Text statsText = new Text("Total Score: " + currentPlayer.getScore());
+        statsText = new Text();
         statsText.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
         statsText.setFill(Color.rgb(100, 100, 120));
         
@@ -237,13 +260,22 @@ public class HomeScreen {
         startButton.setOnAction(e -> onStartNewGame.run());
         centerSection.getChildren().add(startButton);
 
+        Button replaysButton = createStyledButton("Watch Replays", Color.rgb(0, 128, 128), Color.rgb(255, 255, 255));
+        replaysButton.setOnAction(e -> onShowReplays.run());
+        centerSection.getChildren().add(replaysButton);
+
         // Add both sections to main layout
         layout.getChildren().addAll(topSection, centerSection);
 
-        // Set and show the scene
-        Scene scene = new Scene(layout, 1200, 700);
-        stage.setScene(scene);
-        stage.show();
+        scene = new Scene(layout, 1200, 700);
+    }
+
+    /**
+     * Shows the current player's name and total score.
+     */
+    private void refreshPlayer() {
+        usernameDisplay.setText(currentPlayer.getUserName());
+        statsText.setText("Total Score: " + currentPlayer.getScore());
     }
 
     /**
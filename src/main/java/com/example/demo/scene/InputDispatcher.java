@@ -0,0 +1,178 @@
+package com.example.demo.scene;
+
+import com.example.demo.engine.Direction;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Turns arrow key presses into moves, through one handler per scene.
+ * <p>
+ * The dispatcher is installed as an event filter on the scene, so it sees
+ * every key press once, before any focused control, and consumes the arrow
+ * keys so nothing else reacts to them. Moves are applied straight away on
+ * the JavaFX thread, in the handler of the key event that asked for them.
+ * <p>
+ * Presses that arrive while a move is still being applied, or while the
+ * dispatcher is paused, wait in a small queue and are applied in order as
+ * soon as possible. The queue holds {@link #CAPACITY} moves; a press that
+ * does not fit is dropped. Auto-repeat presses of a held key are only
+ * accepted when the queue is empty, so holding a key never builds up a
+ * backlog of moves that keeps playing after the key is released.
+ */
+public class InputDispatcher {
+
+    /** Largest number of moves waiting to be applied */
+    public static final int CAPACITY = 4;
+
+    private final Consumer<Direction> mover;
+    private final int[] queue = new int[CAPACITY];
+    private final boolean[] held = new boolean[Direction.values().length];
+    private final EventHandler<KeyEvent> onPressed = this::keyPressed;
+    private final EventHandler<KeyEvent> onReleased = this::keyReleased;
+    private int head;
+    private int count;
+    private int paused;
+    private boolean dispatching;
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param mover applies one move on the JavaFX thread
+     */
+    public InputDispatcher(Consumer<Direction> mover) {
+        this.mover = mover;
+    }
+
+    /**
+     * Starts handling the arrow keys of a scene.
+     *
+     * @param scene the scene
+     */
+    public void install(Scene scene) {
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, onPressed);
+        scene.addEventFilter(KeyEvent.KEY_RELEASED, onReleased);
+    }
+
+    /**
+     * Stops handling the keys of a scene and drops any queued moves.
+     *
+     * @param scene the scene passed to {@link #install(Scene)}
+     */
+    public void uninstall(Scene scene) {
+        scene.removeEventFilter(KeyEvent.KEY_PRESSED, onPressed);
+        scene.removeEventFilter(KeyEvent.KEY_RELEASED, onReleased);
+        clear();
+    }
+
+    /**
+     * Queues a move and applies the queue unless paused.
+     *
+     * @param direction the move
+     * @return {@code false} if the queue was full and the move was dropped
+     */
+    public boolean offer(Direction direction) {
+        if (count == CAPACITY) {
+            return false;
+        }
+        queue[(head + count) % CAPACITY] = direction.code();
+        count++;
+        drain();
+        return true;
+    }
+
+    /**
+     * Holds back queued moves until {@link #resume()}, e.g. while a dialog is open.
+     * Calls nest.
+     */
+    public void pause() {
+        paused++;
+    }
+
+    /**
+     * Ends one {@link #pause()} and applies the moves that were queued meanwhile.
+     */
+    public void resume() {
+        if (paused > 0 && --paused == 0) {
+            drain();
+        }
+    }
+
+    /**
+     * Drops all queued moves.
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    /**
+     * @return number of moves waiting to be applied
+     */
+    public int pending() {
+        return count;
+    }
+
+    private void keyPressed(KeyEvent key) {
+        Direction direction = toDirection(key.getCode());
+        if (direction == null) {
+            return;
+        }
+        key.consume();
+        boolean repeat = held[direction.code()];
+        held[direction.code()] = true;
+        if (repeat && count > 0) {
+            return;
+        }
+        offer(direction);
+    }
+
+    private void keyReleased(KeyEvent key) {
+        Direction direction = toDirection(key.getCode());
+        if (direction != null) {
+            held[direction.code()] = false;
+            key.consume();
+        }
+    }
+
+    /**
+     * Applies the queued moves in order. A press handled while a move is
+     * being applied (a dialog runs a nested event loop) is only queued; the
+     * outer call applies it afterwards.
+     */
+    private void drain() {
+        if (dispatching) {
+            return;
+        }
+        dispatching = true;
+        try {
+            while (count > 0 && paused == 0) {
+                Direction direction = Direction.fromCode(queue[head]);
+                head = (head + 1) % CAPACITY;
+                count--;
+                mover.accept(direction);
+            }
+        } finally {
+            dispatching = false;
+        }
+    }
+
+    /**
+     * Maps an arrow key to a move direction.
+     *
+     * @param code the pressed key
+     * @return the direction, or {@code null} for non-arrow keys
+     */
+    static Direction toDirection(KeyCode code) {
+        return switch (code) {
+            case LEFT -> Direction.LEFT;
+            case RIGHT -> Direction.RIGHT;
+            case UP -> Direction.UP;
+            case DOWN -> Direction.DOWN;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,381 @@
+package com.example.demo.scene;
+
+import com.example.demo.engine.MoveChanges;
+import com.example.demo.engine.PackedBoard;
+import javafx.animation.AnimationTimer;
+import javafx.scene.CacheHint;
+import javafx.scene.Group;
+import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+/**
+ * Board made of {@link ImageView}s showing sprites of the {@link TileAtlas}.
+ * <p>
+ * Each cell has a fixed view showing the empty cell. The tiles are a pool
+ * of further views, all created with the board and hidden while free: a
+ * tile that slides moves its view to the new cell, a merge frees the view
+ * of the tile that slid in and a spawn takes one from the pool. Applying a
+ * move's {@link MoveChanges} therefore touches only the views of the tiles
+ * involved, and no node is created or removed after the board is built,
+ * not even by undo or a new game.
+ * <p>
+ * Moves applied from a change list are animated by one
+ * {@link AnimationTimer}: the tiles slide to their new cells, then merged
+ * tiles pop and the new tile grows in. Only the translate and scale of the
+ * cached views change, so the frames are cheap. The views always stand for
+ * the latest board: a render that arrives while an animation is running
+ * first jumps it to its end, so fast input is never held back and several
+ * moves in one frame collapse into the last one's animation.
+ */
+public class NodeBoardView extends BoardView {
+
+    private static final long SLIDE_NANOS = 100_000_000;
+    private static final long POP_NANOS = 100_000_000;
+    private static final double POP_SCALE = 0.15;
+
+    private final Rectangle background;
+    private final TileAtlas atlas;
+    private final ImageView[] slots;
+    private final ImageView[] tiles;
+    // Pool index of the tile on each cell, -1 if empty
+    private final int[] tileAt;
+    private final int[] tileCell;
+    private final int[] free;
+    private final int[] shown;
+    private int freeCount;
+    private int hovered = -1;
+
+    // Running animation: the tiles taking part and what each one does
+    private final AnimationTimer timer;
+    private final int[] animated;
+    private final boolean[] animating;
+    private final double[] slideX;
+    private final double[] slideY;
+    private final boolean[] popping;
+    private final boolean[] spawning;
+    private final boolean[] vanishing;
+    private int animatedCount;
+    private long animationStart;
+    private boolean revealed;
+
+    /**
+     * Creates the board and adds it to a root group.
+     *
+     * @param root   group the background and cells are added to
+     * @param n      number of rows and columns
+     * @param length width and height of one cell in pixels
+     */
+    public NodeBoardView(Group root, int n, double length) {
+        super(root, n, length);
+        background = new Rectangle(boardX, boardY, boardWidth, boardWidth);
+        background.setFill(Color.rgb(238, 228, 218));
+        background.setArcWidth(15);
+        background.setArcHeight(15);
+        root.getChildren().add(background);
+
+        atlas = TileAtlas.forLength(length);
+        // One spare view: a full board can merge a pair and spawn while the merged tile still shows
+        int poolSize = n * n + 1;
+        slots = new ImageView[n * n];
+        tiles = new ImageView[poolSize];
+        tileAt = new int[n * n];
+        tileCell = new int[poolSize];
+        free = new int[poolSize];
+        shown = new int[n * n];
+        for (int cell = 0; cell < n * n; cell++) {
+            ImageView slot = new ImageView(atlas.getImage());
+            slot.setX(cellX(cell % n));
+            slot.setY(cellY(cell / n));
+            slot.setViewport(atlas.viewport(0, false));
+
+            // Hovered cells show the shaded sprites; the tiles let the mouse through to the slots
+            final int index = cell;
+            slot.setOnMouseEntered(e -> hover(index));
+            slot.setOnMouseExited(e -> hover(-1));
+            slot.setOnMouseClicked(e -> {
+                System.out.println("Clicked cell at [" + index / n + "][" + index % n + "] with exponent: " + shown[index]);
+            });
+            slots[cell] = slot;
+            tileAt[cell] = -1;
+        }
+        for (int tile = 0; tile < poolSize; tile++) {
+            ImageView view = new ImageView(atlas.getImage());
+            view.setMouseTransparent(true);
+            view.setVisible(false);
+            view.setCache(true);
+            view.setCacheHint(CacheHint.SPEED);
+            tiles[tile] = view;
+            tileCell[tile] = -1;
+            free[tile] = poolSize - 1 - tile;
+        }
+        freeCount = poolSize;
+        root.getChildren().addAll(slots);
+        root.getChildren().addAll(tiles);
+
+        animated = new int[poolSize];
+        animating = new boolean[poolSize];
+        slideX = new double[poolSize];
+        slideY = new double[poolSize];
+        popping = new boolean[poolSize];
+        spawning = new boolean[poolSize];
+        vanishing = new boolean[poolSize];
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                animate(now);
+            }
+        };
+    }
+
+    /**
+     * Returns every tile to the pool.
+     */
+    @Override
+    public void rebuild() {
+        finishAnimation();
+        for (int cell = 0; cell < n * n; cell++) {
+            if (tileAt[cell] >= 0) {
+                release(cell);
+            }
+        }
+    }
+
+    @Override
+    protected void drawBoard(PackedBoard board) {
+        finishAnimation();
+        for (int cell = 0; cell < n * n; cell++) {
+            int exponent = board.get(cell / n, cell % n);
+            if (exponent != shown[cell]) {
+                show(cell, exponent);
+            }
+        }
+    }
+
+    @Override
+    protected void drawCells(PackedBoard board, long changed) {
+        finishAnimation();
+        for (; changed != 0; changed &= changed - 1) {
+            int cell = Long.numberOfTrailingZeros(changed);
+            show(cell, board.get(cell / n, cell % n));
+        }
+    }
+
+    /**
+     * Moves, merges and spawns the tile views as listed and animates the move.
+     * The views are put in their new cells at once; the animation only
+     * offsets and scales them.
+     */
+    @Override
+    protected void drawChanges(MoveChanges changes, PackedBoard board) {
+        finishAnimation();
+        for (int i = 0; i < changes.size(); i++) {
+            int from = changes.from(i);
+            int to = changes.to(i);
+            switch (changes.kind(i)) {
+                case MoveChanges.MOVE -> {
+                    int tile = tileAt[from];
+                    tileAt[from] = -1;
+                    tileAt[to] = tile;
+                    shown[to] = shown[from];
+                    shown[from] = 0;
+                    place(tile, to);
+                    slide(tile, from, to);
+                }
+                case MoveChanges.MERGE -> {
+                    // The tile sliding in keeps showing until the slide ends, then goes back to the pool
+                    int tile = tileAt[from];
+                    int exponent = shown[from];
+                    tileAt[from] = -1;
+                    shown[from] = 0;
+                    tileCell[tile] = to;
+                    tiles[tile].setX(cellX(to % n));
+                    tiles[tile].setY(cellY(to / n));
+                    tiles[tile].setViewport(atlas.viewport(exponent, false));
+                    slide(tile, from, to);
+                    vanishing[tile] = true;
+                    // The tile it merges into shows the new value when the slide ends
+                    shown[to] = changes.exponent(i);
+                    popping[start(tileAt[to])] = true;
+                }
+                default -> {
+                    show(to, changes.exponent(i));
+                    int tile = tileAt[to];
+                    tiles[tile].setVisible(false);
+                    spawning[start(tile)] = true;
+                }
+            }
+        }
+        if (animatedCount > 0) {
+            animationStart = 0;
+            revealed = false;
+            timer.start();
+        }
+    }
+
+    @Override
+    public int nodeCount() {
+        // The background, a slot per cell and the tile pool
+        return 1 + n * n + tiles.length;
+    }
+
+    /**
+     * Shows an exponent on a cell, taking a tile from the pool or returning
+     * it as needed.
+     */
+    private void show(int cell, int exponent) {
+        if (exponent == 0) {
+            if (tileAt[cell] >= 0) release(cell);
+            return;
+        }
+        if (tileAt[cell] < 0) {
+            int tile = free[--freeCount];
+            tileAt[cell] = tile;
+            place(tile, cell);
+            tiles[tile].setVisible(true);
+        }
+        shown[cell] = exponent;
+        tiles[tileAt[cell]].setViewport(atlas.viewport(exponent, cell == hovered));
+    }
+
+    private void release(int cell) {
+        int tile = tileAt[cell];
+        tileAt[cell] = -1;
+        shown[cell] = 0;
+        free(tile);
+    }
+
+    private void free(int tile) {
+        tileCell[tile] = -1;
+        tiles[tile].setVisible(false);
+        free[freeCount++] = tile;
+    }
+
+    private void place(int tile, int cell) {
+        tileCell[tile] = cell;
+        tiles[tile].setX(cellX(cell % n));
+        tiles[tile].setY(cellY(cell / n));
+        tiles[tile].setViewport(atlas.viewport(shown[cell], cell == hovered));
+    }
+
+    /**
+     * Adds a tile to the running animation.
+     *
+     * @return the tile
+     */
+    private int start(int tile) {
+        if (!animating[tile]) {
+            animating[tile] = true;
+            animated[animatedCount++] = tile;
+        }
+        return tile;
+    }
+
+    /**
+     * Starts a tile sliding from one cell to another. The view is already
+     * in the destination cell, so it is offset back to where it came from.
+     */
+    private void slide(int tile, int from, int to) {
+        start(tile);
+        slideX[tile] = cellX(from % n) - cellX(to % n);
+        slideY[tile] = cellY(from / n) - cellY(to / n);
+        tiles[tile].setTranslateX(slideX[tile]);
+        tiles[tile].setTranslateY(slideY[tile]);
+    }
+
+    /**
+     * Advances the animation to a pulse: first the slides, then the merge
+     * pops and spawns.
+     */
+    private void animate(long now) {
+        if (animationStart == 0) {
+            animationStart = now;
+        }
+        long elapsed = now - animationStart;
+        if (elapsed >= SLIDE_NANOS + POP_NANOS) {
+            finishAnimation();
+            return;
+        }
+        double slide = Math.min(1, elapsed / (double) SLIDE_NANOS);
+        // Ease out, so the tiles settle into their cells
+        double remaining = Math.pow(1 - slide, 3);
+        for (int i = 0; i < animatedCount; i++) {
+            int tile = animated[i];
+            tiles[tile].setTranslateX(slideX[tile] * remaining);
+            tiles[tile].setTranslateY(slideY[tile] * remaining);
+        }
+        if (slide < 1) {
+            return;
+        }
+        if (!revealed) {
+            reveal();
+        }
+        double pop = (elapsed - SLIDE_NANOS) / (double) POP_NANOS;
+        for (int i = 0; i < animatedCount; i++) {
+            int tile = animated[i];
+            double scale = spawning[tile] ? pop : popping[tile] ? 1 + POP_SCALE * Math.sin(Math.PI * pop) : 1;
+            tiles[tile].setScaleX(scale);
+            tiles[tile].setScaleY(scale);
+        }
+    }
+
+    /**
+     * Ends the slides: merged tiles take their new value, the tiles that
+     * slid into them return to the pool and the new tile appears.
+     */
+    private void reveal() {
+        revealed = true;
+        for (int i = 0; i < animatedCount; i++) {
+            int tile = animated[i];
+            tiles[tile].setTranslateX(0);
+            tiles[tile].setTranslateY(0);
+            if (vanishing[tile]) {
+                vanishing[tile] = false;
+                free(tile);
+            } else if (popping[tile]) {
+                int cell = tileCell[tile];
+                tiles[tile].setViewport(atlas.viewport(shown[cell], cell == hovered));
+            } else if (spawning[tile]) {
+                tiles[tile].setScaleX(0);
+                tiles[tile].setScaleY(0);
+                tiles[tile].setVisible(true);
+            }
+        }
+    }
+
+    /**
+     * Jumps the running animation, if any, to its end.
+     */
+    private void finishAnimation() {
+        if (animatedCount == 0) {
+            return;
+        }
+        if (!revealed) {
+            reveal();
+        }
+        for (int i = 0; i < animatedCount; i++) {
+            int tile = animated[i];
+            tiles[tile].setScaleX(1);
+            tiles[tile].setScaleY(1);
+            animating[tile] = false;
+            popping[tile] = false;
+            spawning[tile] = false;
+        }
+        animatedCount = 0;
+        timer.stop();
+    }
+
+    private void hover(int cell) {
+        int previous = hovered;
+        hovered = cell;
+        if (previous >= 0) refresh(previous);
+        if (cell >= 0) refresh(cell);
+    }
+
+    private void refresh(int cell) {
+        slots[cell].setViewport(atlas.viewport(0, cell == hovered));
+        if (tileAt[cell] >= 0) {
+            tiles[tileAt[cell]].setViewport(atlas.viewport(shown[cell], cell == hovered));
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.demo.scene;
+
+import com.example.demo.data.DataManager;
+import com.example.demo.engine.Bitboard;
+import com.example.demo.engine.Game;
+import com.example.demo.replay.ReplayArchive;
+import com.example.demo.replay.ReplayReader;
+import com.example.demo.replay.ReplayWriter;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Pos;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Slider;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays back recorded games on the same {@link BoardView} as the game scene.
+ * <p>
+ * Games from the replay archive are listed on the left, newest first or the
+ * top scores first. The chosen
+ * replay can be played forward or backward at speeds from 1 to 4096 moves
+ * per second, stepped one move at a time, or moved to any move number with
+ * the slider or the "Go" field. Seeking loads the nearest keyframe of the
+ * replay, so a jump costs the same anywhere in the game.
+ * <p>
+ * Playback is driven by an {@link AnimationTimer}: each pulse works out
+ * which move should be showing and renders only that board, so at high
+ * speeds the moves in between are skipped rather than drawn.
+ */
+public class ReplayScene {
+
+    private static final int WIDTH = 1200;
+    private static final int[] SPEEDS = {1, 4, 16, 64, 256, 1024, 4096};
+    private static final int TOP_GAMES = 20;
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    private final Stage stage;
+    private final Runnable goHome;
+    private final Group root = new Group();
+    private final Group boardLayer = new Group();
+    private final Text titleText = new Text("Choose a replay");
+    private final Text stepText = new Text("");
+    private final Text scoreText = new Text("");
+    private final Slider slider = new Slider(0, 0, 0);
+    private final VBox controls = new VBox(12);
+    private final AnimationTimer timer;
+
+    private ReplayArchive archive;
+    private ReplayReader reader;
+    private Game game;
+    private BoardView boardView;
+    private int speedIndex = 2;
+    private int direction;
+    private double position;
+    private long lastPulse;
+    private boolean updatingSlider;
+    private boolean bestFirst;
+
+    /**
+     * Creates the replay scene.
+     *
+     * @param stage  the primary stage
+     * @param goHome callback to return to the home screen
+     */
+    public ReplayScene(Stage stage, Runnable goHome) {
+        this.stage = stage;
+        this.goHome = goHome;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                pulse(now);
+            }
+        };
+    }
+
+    /**
+     * Builds the scene and shows it on the stage.
+     */
+    public void show() {
+        root.getChildren().add(boardLayer);
+
+        ListView<ReplayArchive.Entry> replayList = new ListView<>();
+        replayList.getItems().addAll(listReplays());
+        replayList.setPrefSize(200, 520);
+        replayList.getSelectionModel().selectedItemProperty().addListener((obs, old, entry) -> {
+            if (entry != null) {
+                load(entry);
+            }
+        });
+
+        Text listLabel = new Text("Recorded Games");
+        listLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+        listLabel.setFill(Color.rgb(80, 80, 100));
+
+        // Switches the list between the newest games and the best ones, both read from the index
+        Button orderBtn = createButton("Newest", Color.rgb(100, 149, 237));
+        orderBtn.setPrefWidth(200);
+        orderBtn.setOnAction(e -> {
+            bestFirst = !bestFirst;
+            orderBtn.setText(bestFirst ? "Top " + TOP_GAMES + " by score" : "Newest");
+            replayList.getItems().setAll(listReplays());
+        });
+
+        VBox listPanel = new VBox(8, listLabel, orderBtn, replayList);
+        listPanel.setLayoutX(20);
+        listPanel.setLayoutY(50);
+
+        titleText.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+        titleText.setFill(Color.rgb(80, 80, 100));
+        stepText.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        stepText.setFill(Color.rgb(255, 140, 0));
+        scoreText.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        scoreText.setFill(Color.rgb(255, 140, 0));
+
+        slider.setPrefWidth(250);
+        slider.valueProperty().addListener((obs, old, value) -> {
+            if (!updatingSlider && reader != null) {
+                stop();
+                seek(value.intValue());
+            }
+        });
+
+        Button startBtn = createButton("⏮", Color.rgb(100, 149, 237));
+        startBtn.setOnAction(e -> {
+            stop();
+            seek(0);
+        });
+        Button stepBackBtn = createButton("◀", Color.rgb(100, 149, 237));
+        stepBackBtn.setOnAction(e -> step(-1));
+        Button stepForwardBtn = createButton("▶", Color.rgb(100, 149, 237));
+        stepForwardBtn.setOnAction(e -> step(1));
+        Button endBtn = createButton("⏭", Color.rgb(100, 149, 237));
+        endBtn.setOnAction(e -> {
+            stop();
+            seek(Integer.MAX_VALUE);
+        });
+        HBox stepControls = new HBox(6, startBtn, stepBackBtn, stepForwardBtn, endBtn);
+
+        Button backwardBtn = createButton("◀◀", Color.rgb(34, 139, 34));
+        backwardBtn.setOnAction(e -> play(-1));
+        Button pauseBtn = createButton("⏸", Color.rgb(34, 139, 34));
+        pauseBtn.setOnAction(e -> stop());
+        Button forwardBtn = createButton("▶▶", Color.rgb(34, 139, 34));
+        forwardBtn.setOnAction(e -> play(1));
+        HBox playControls = new HBox(6, backwardBtn, pauseBtn, forwardBtn);
+
+        Button speedBtn = createButton(speedLabel(), Color.rgb(186, 85, 211));
+        speedBtn.setPrefWidth(250);
+        speedBtn.setOnAction(e -> {
+            speedIndex = (speedIndex + 1) % SPEEDS.length;
+            speedBtn.setText(speedLabel());
+        });
+
+        TextField moveField = new TextField();
+        moveField.setPromptText("Move number");
+        moveField.setPrefWidth(150);
+        Button goBtn = createButton("Go", Color.rgb(0, 128, 128));
+        Runnable goToMove = () -> {
+            try {
+                stop();
+                seek(Integer.parseInt(moveField.getText().trim()));
+            } catch (NumberFormatException ex) {
+                moveField.clear();
+            }
+        };
+        goBtn.setOnAction(e -> goToMove.run());
+        moveField.setOnAction(e -> goToMove.run());
+        HBox goControls = new HBox(6, moveField, goBtn);
+
+        Button backBtn = createButton("Back", Color.rgb(255, 69, 0));
+        backBtn.setPrefWidth(250);
+        backBtn.setOnAction(e -> {
+            timer.stop();
+            goHome.run();
+        });
+
+        controls.getChildren().addAll(titleText, stepText, scoreText, slider, stepControls, playControls,
+                speedBtn, goControls, backBtn);
+        controls.setAlignment(Pos.TOP_LEFT);
+        controls.setLayoutX(970);
+        controls.setLayoutY(50);
+
+        root.getChildren().addAll(listPanel, controls);
+
+        Scene scene = new Scene(root, WIDTH, BoardView.sceneHeight(6), Color.rgb(250, 248, 239));
+        scene.setOnKeyPressed(key -> {
+            switch (key.getCode()) {
+                case LEFT -> step(-1);
+                case RIGHT -> step(1);
+                case SPACE -> {
+                    if (direction == 0) play(1); else stop();
+                }
+                default -> { }
+            }
+        });
+        stage.setScene(scene);
+        stage.show();
+        timer.start();
+    }
+
+    /**
+     * Lists the archived games, newest first or the highest scores first.
+     */
+    private List<ReplayArchive.Entry> listReplays() {
+        try {
+            archive = DataManager.getReplayArchive();
+        } catch (IOException e) {
+            System.err.println("Failed to open replay archive: " + e.getMessage());
+            return List.of();
+        }
+        if (bestFirst) {
+            return archive.topScores(0, TOP_GAMES);
+        }
+        List<ReplayArchive.Entry> entries = new ArrayList<>(archive.size());
+        for (int i = archive.size() - 1; i >= 0; i--) {
+            entries.add(archive.entry(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Opens an archived game and shows its starting position. The board is
+     * rebuilt only when the board size changes.
+     */
+    private void load(ReplayArchive.Entry entry) {
+        stop();
+        reader = archive.open(entry);
+        int n = reader.size();
+        if (boardView == null || boardView.getSize() != n) {
+            boardLayer.getChildren().clear();
+            boardView = BoardView.create(boardLayer, n, BoardView.tileLength(n));
+            // Same placement as the game scene's panel
+            controls.setLayoutX(Math.max(970, boardView.getX() + boardView.getWidth() + 100));
+        }
+        game = new Game(n, reader.seed());
+        titleText.setText(n + "x" + n + " game by " + entry.getPlayer() + ", "
+                + DATE_FORMAT.format(Instant.ofEpochMilli(entry.getTimestamp())));
+        updatingSlider = true;
+        slider.setMax(reader.stepCount());
+        updatingSlider = false;
+        seek(0);
+    }
+
+    /**
+     * Shows the board after the given move.
+     */
+    private void seek(int target) {
+        if (reader == null) return;
+        reader.seek(target, game);
+        position = reader.step();
+        render();
+    }
+
+    /**
+     * Moves one step forward or back and pauses playback.
+     */
+    private void step(int delta) {
+        if (reader == null) return;
+        stop();
+        seek(reader.step() + delta);
+    }
+
+    private void play(int newDirection) {
+        if (reader == null) return;
+        direction = newDirection;
+        lastPulse = 0;
+    }
+
+    private void stop() {
+        direction = 0;
+    }
+
+    /**
+     * Advances playback by the time since the last pulse and renders the
+     * board once. Short forward jumps read on from the current move; longer
+     * jumps and backward play seek through the keyframes.
+     */
+    private void pulse(long now) {
+        if (direction == 0 || reader == null) return;
+        if (lastPulse == 0) {
+            lastPulse = now;
+            return;
+        }
+        position += direction * SPEEDS[speedIndex] * (now - lastPulse) / 1e9;
+        lastPulse = now;
+        position = Math.max(0, Math.min(position, reader.stepCount()));
+
+        int target = (int) position;
+        int current = reader.step();
+        if (target > current && target - current < ReplayWriter.KEYFRAME_INTERVAL) {
+            while (reader.step() < target && reader.next()) {
+                reader.applyTo(game);
+            }
+        } else if (target != current) {
+            reader.seek(target, game);
+        }
+        render();
+        if (position == 0 || position == reader.stepCount()) {
+            stop();
+        }
+    }
+
+    private void render() {
+        boardView.render(game.getBoard());
+        stepText.setText("Move " + reader.step() + " / " + reader.stepCount());
+        scoreText.setText("Score " + game.getScore() + "   Max " + Bitboard.tileValue(game.getMaxExponent()));
+        updatingSlider = true;
+        slider.setValue(reader.step());
+        updatingSlider = false;
+    }
+
+    private String speedLabel() {
+        return "Speed: " + SPEEDS[speedIndex] + " moves/s";
+    }
+
+    private Button createButton(String text, Color backgroundColor) {
+        Button button = new Button(text);
+        button.setPrefSize(56, 35);
+        button.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        button.setBackground(new Background(new BackgroundFill(backgroundColor, new CornerRadii(6), null)));
+        button.setTextFill(Color.WHITE);
+        button.setFocusTraversable(false);
+        return button;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.scene;
+
+import com.example.demo.data.Account;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+
+/**
+ * Builds the application's scenes once and shows them again later.
+ * <p>
+ * The game scene, with its end game screen, is built the first time a
+ * board size is played and kept for that size: later games of the same
+ * size only reset it through {@link GameScene#restart}, so the board's tile
+ * views, the buttons and texts, the engine and the undo history are all
+ * reused. The end game screen updates its texts in place and the home
+ * screen is built once too. A restart therefore creates no scene graph
+ * nodes.
+ */
+public class SceneManager {
+
+    private static final int WIDTH = 1200;
+    private static final int MIN_SIZE = 4;
+    private static final int MAX_SIZE = 6;
+
+    /**
+     * The scenes kept for one board size.
+     */
+    private static final class Session {
+        private final Scene gameScene;
+        private final Group gameRoot;
+        private final Scene endGameScene;
+        private final Group endGameRoot;
+        private final GameScene game;
+
+        private Session(int height) {
+            gameRoot = new Group();
+            endGameRoot = new Group();
+            gameScene = new Scene(gameRoot, WIDTH, height, Color.rgb(250, 248, 239));
+            endGameScene = new Scene(endGameRoot, WIDTH, height, Color.rgb(250, 20, 100, 0.2));
+            game = new GameScene();
+        }
+    }
+
+    private final Stage stage;
+    private final Session[] sessions = new Session[MAX_SIZE - MIN_SIZE + 1];
+    private HomeScreen home;
+
+    /**
+     * Creates a manager for the scenes shown on a stage.
+     *
+     * @param stage the application's main window
+     */
+    public SceneManager(Stage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Starts a game and shows it. The scenes of the board size are built on
+     * its first game and reset for the later ones.
+     *
+     * @param player    the player account to use for the game
+     * @param boardSize the size of the game board (4, 5, or 6)
+     * @param onRestart callback to restart the game from the end game screen;
+     *                  only the one given on a size's first game is kept
+     * @param goHome    callback to return to the home screen; only the one
+     *                  given on a size's first game is kept
+     */
+    public void showGame(Account player, int boardSize, Runnable onRestart, Runnable goHome) {
+        GameScene.setN(boardSize);
+        int size = GameScene.getN();
+
+        Session session = sessions[size - MIN_SIZE];
+        if (session == null) {
+            session = new Session(BoardView.sceneHeight(size));
+            sessions[size - MIN_SIZE] = session;
+            session.game.game(session.gameScene, session.gameRoot, stage, session.endGameScene,
+                    session.endGameRoot, player, onRestart, goHome);
+        } else {
+            session.game.restart(player);
+        }
+
+        stage.setScene(session.gameScene);
+        stage.show();
+    }
+
+    /**
+     * Shows the home screen, building it on the first call.
+     *
+     * @param player    the player shown on first use; later the home screen
+     *                  keeps its own current player
+     * @param onStart   callback to launch the game scene
+     * @param onReplays callback to open the replay viewer
+     * @return the home screen
+     */
+    public HomeScreen showHome(Account player, Runnable onStart, Runnable onReplays) {
+        if (home == null) {
+            home = new HomeScreen(stage, player, onStart, onReplays);
+        }
+        home.show();
+        return home;
+    }
+
+    /**
+     * @return the home screen, or {@code null} if it has not been shown yet
+     */
+    public HomeScreen getHome() {
+        return home;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.scene;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listeners, event handlers and delayed tasks that belong to one scene and
+ * are released together when it closes.
+ * <p>
+ * A scene that hooks into something that outlives it, such as the primary
+ * stage, registers through a scope instead, so {@link #close()} can undo
+ * every registration. Otherwise each new game would leave its handlers on
+ * the stage and every key press or focus change would reach all the old
+ * games too.
+ * <p>
+ * Delayed tasks run on one daemon thread shared by all scopes rather than a
+ * {@code java.util.Timer} per game, and are cancelled when their scope
+ * closes. Scopes are used on the JavaFX thread only.
+ */
+public final class Subscriptions {
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, task -> {
+        Thread thread = new Thread(task, "scene-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Cancelled tasks are removed at once instead of waiting for their delay
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final List<Runnable> releases = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * Adds a change listener until the scope closes.
+     *
+     * @param value    the observed value
+     * @param listener the listener
+     * @param <T>      type of the value
+     */
+    public <T> void listen(ObservableValue<T> value, ChangeListener<? super T> listener) {
+        value.addListener(listener);
+        onClose(() -> value.removeListener(listener));
+    }
+
+    /**
+     * Adds an event handler to a window until the scope closes.
+     *
+     * @param window  the window, usually the primary stage
+     * @param type    the event type
+     * @param handler the handler
+     * @param <E>     class of the events
+     */
+    public <E extends Event> void handle(Window window, EventType<E> type, EventHandler<? super E> handler) {
+        window.addEventHandler(type, handler);
+        onClose(() -> window.removeEventHandler(type, handler));
+    }
+
+    /**
+     * Runs a task on the JavaFX thread after a delay, unless the scope has
+     * closed by then.
+     *
+     * @param task         the task
+     * @param delayMillis  delay in milliseconds
+     */
+    public void schedule(Runnable task, long delayMillis) {
+        ScheduledFuture<?> future = SCHEDULER.schedule(() -> Platform.runLater(() -> {
+            if (!closed) {
+                task.run();
+            }
+        }), delayMillis, TimeUnit.MILLISECONDS);
+        onClose(() -> future.cancel(false));
+    }
+
+    /**
+     * Adds an action to run when the scope closes. If it has closed already
+     * the action runs at once.
+     *
+     * @param release the action
+     */
+    public void onClose(Runnable release) {
+        if (closed) {
+            release.run();
+        } else {
+            releases.add(release);
+        }
+    }
+
+    /**
+     * Releases everything registered, newest first. Closing again does nothing.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = releases.size() - 1; i >= 0; i--) {
+            releases.get(i).run();
+        }
+        releases.clear();
+    }
+
+    /**
+     * @return {@code true} once {@link #close()} has been called
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+}
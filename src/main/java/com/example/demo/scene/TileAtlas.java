@@ -0,0 +1,166 @@
+package com.example.demo.scene;
+
+import com.example.demo.engine.Bitboard;
+import com.example.demo.ui.Cell;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Every tile image of one tile size, pre-rendered into a single image.
+ * <p>
+ * The atlas holds a sprite for each exponent a {@link com.example.demo.engine.PackedBoard}
+ * cell can hold (the empty cell and 2 up to 32768), once plain and once
+ * with the hover shade. The sprites are laid out as rectangles and text
+ * nodes and captured with one {@link javafx.scene.Node#snapshot}, so fonts,
+ * colors and text layout are worked out only while building the atlas.
+ * The boards then only copy sprites: {@link CanvasBoardView} draws them and
+ * {@link NodeBoardView} points an image view at them.
+ * <p>
+ * An atlas is built the first time {@link GameScene#setN} picks its tile
+ * size and kept, since the game scene of each board size is kept too. There
+ * are only three tile sizes. Use it on the JavaFX thread only.
+ */
+public final class TileAtlas {
+
+    /** Number of exponents with a sprite: 0 (empty) to 15 */
+    public static final int EXPONENTS = 16;
+
+    private static final double ARC = 15;
+    private static final int PADDING = 2;
+
+    private static final Logger LOGGER = Logger.getLogger(TileAtlas.class.getName());
+
+    private static final Map<Double, TileAtlas> ATLASES = new HashMap<>();
+
+    private final double length;
+    private final double stride;
+    private final Image image;
+    private final Rectangle2D[] viewports = new Rectangle2D[2 * EXPONENTS];
+
+    private TileAtlas(double length) {
+        this.length = length;
+        this.stride = Math.ceil(length) + PADDING;
+
+        Group sprites = new Group();
+        for (int hover = 0; hover < 2; hover++) {
+            for (int exponent = 0; exponent < EXPONENTS; exponent++) {
+                addSprite(sprites, exponent, hover == 1);
+                viewports[hover * EXPONENTS + exponent] = new Rectangle2D(
+                        spriteX(exponent, hover == 1), spriteY(exponent, hover == 1), length, length);
+            }
+        }
+        // Keeps the atlas the full size even if the last sprites are smaller than a stride
+        Rectangle bounds = new Rectangle(0, 0, EXPONENTS * stride, 2 * stride);
+        bounds.setFill(Color.TRANSPARENT);
+        sprites.getChildren().add(0, bounds);
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        this.image = sprites.snapshot(parameters, null);
+    }
+
+    /**
+     * Returns the atlas for a tile size, building it the first time the
+     * size is asked for.
+     *
+     * @param length width and height of one tile in pixels
+     * @return the atlas
+     */
+    public static TileAtlas forLength(double length) {
+        TileAtlas atlas = ATLASES.get(length);
+        if (atlas == null) {
+            long start = System.nanoTime();
+            atlas = new TileAtlas(length);
+            ATLASES.put(length, atlas);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            LOGGER.fine(() -> "Tile atlas built for length " + length + " in " + millis + " ms");
+        }
+        return atlas;
+    }
+
+    /**
+     * @return the image holding all sprites
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * @return width and height of one sprite in pixels
+     */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * @param exponent tile exponent, 0 for an empty cell
+     * @param hover    {@code true} for the shaded sprite shown under the mouse
+     * @return x coordinate of the sprite in the image
+     */
+    public double spriteX(int exponent, boolean hover) {
+        return exponent * stride;
+    }
+
+    /**
+     * @param exponent tile exponent, 0 for an empty cell
+     * @param hover    {@code true} for the shaded sprite shown under the mouse
+     * @return y coordinate of the sprite in the image
+     */
+    public double spriteY(int exponent, boolean hover) {
+        return hover ? stride : 0;
+    }
+
+    /**
+     * Returns the part of the image holding one sprite, for an image view.
+     *
+     * @param exponent tile exponent, 0 for an empty cell
+     * @param hover    {@code true} for the shaded sprite shown under the mouse
+     * @return the sprite's rectangle in the image
+     */
+    public Rectangle2D viewport(int exponent, boolean hover) {
+        return viewports[(hover ? EXPONENTS : 0) + exponent];
+    }
+
+    /**
+     * Lays out one sprite: the tile in its color and its number centred on it,
+     * styled like a {@link Cell}.
+     */
+    private void addSprite(Group sprites, int exponent, boolean hover) {
+        double x = spriteX(exponent, hover);
+        double y = spriteY(exponent, hover);
+        int value = Bitboard.tileValue(exponent);
+
+        Color color = Cell.getColorForNumber(value);
+        Rectangle tile = new Rectangle(x, y, length, length);
+        tile.setArcWidth(ARC);
+        tile.setArcHeight(ARC);
+        tile.setFill(hover ? color.deriveColor(0, 1, 1, 0.9) : color);
+        sprites.getChildren().add(tile);
+        if (value == 0) {
+            return;
+        }
+
+        Text text = new Text(String.valueOf(value));
+        text.setFont(Font.font("Arial", FontWeight.BOLD, length / 2.2));
+        text.setFill(Cell.getTextColorForNumber(value));
+        // Long numbers are shrunk to fit; this is the only place text is measured
+        double width = text.getLayoutBounds().getWidth();
+        if (width > 0.9 * length) {
+            text.setFont(Font.font("Arial", FontWeight.BOLD, length / 2.2 * 0.9 * length / width));
+        }
+        text.setX(x + length / 2 - text.getLayoutBounds().getWidth() / 2);
+        text.setY(y + length / 2 + text.getLayoutBounds().getHeight() / 4);
+        sprites.getChildren().add(text);
+    }
+}
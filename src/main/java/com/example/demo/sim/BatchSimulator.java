@@ -0,0 +1,114 @@
+package com.example.demo.sim;
+
+import com.example.demo.ai.MovePolicy;
+import com.example.demo.engine.Direction;
+import com.example.demo.engine.Game;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays batches of headless games in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The range of games is split recursively and every split hands a
+ * {@link SplittableRandom#split() split} generator to the new half. Each task
+ * draws the seed of every game it plays from its own generator, so the seeds
+ * depend only on the batch seed, not on the number of threads. Every worker
+ * thread keeps one {@link MovePolicy} instance for all the games it plays, and
+ * results are collected in per-task {@link SimulationReport}s that are merged
+ * on join.
+ * <p>
+ * Whole games are reproducible only with policies that have no time budget
+ * (random, greedy, learned). Expectimax and Monte Carlo stop searching on a
+ * wall-clock deadline, so their moves depend on timing and load. An
+ * expectimax policy also keeps its transposition table from one game to the
+ * next, so its moves depend on which games its worker thread played before.
+ */
+public class BatchSimulator {
+
+    /** Largest number of games a task plays without splitting further */
+    private static final int GAMES_PER_TASK = 4;
+
+    private final int size;
+    private final int threads;
+    private final Supplier<MovePolicy> policyFactory;
+
+    /**
+     * Creates a simulator.
+     *
+     * @param size          board size of the simulated games (4-6)
+     * @param threads       number of worker threads
+     * @param policyFactory creates one policy per worker thread
+     */
+    public BatchSimulator(int size, int threads, Supplier<MovePolicy> policyFactory) {
+        this.size = size;
+        this.threads = threads;
+        this.policyFactory = policyFactory;
+    }
+
+    /**
+     * Plays a batch of games until each of them is over.
+     *
+     * @param games number of games to play
+     * @param seed  seed of the random generators
+     * @return the statistics of the batch
+     */
+    public SimulationReport run(int games, long seed) {
+        ThreadLocal<MovePolicy> policies = ThreadLocal.withInitial(policyFactory);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            SimulationReport report = pool.invoke(new GamesTask(0, games, new SplittableRandom(seed), policies));
+            report.setElapsedNanos(System.nanoTime() - start);
+            return report;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private final class GamesTask extends RecursiveTask<SimulationReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+        private final ThreadLocal<MovePolicy> policies;
+
+        GamesTask(int from, int to, SplittableRandom random, ThreadLocal<MovePolicy> policies) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.policies = policies;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                return playAll();
+            }
+            int mid = (from + to) >>> 1;
+            GamesTask upper = new GamesTask(mid, to, random.split(), policies);
+            upper.fork();
+            SimulationReport report = new GamesTask(from, mid, random, policies).compute();
+            return report.merge(upper.join());
+        }
+
+        private SimulationReport playAll() {
+            SimulationReport report = new SimulationReport();
+            MovePolicy policy = policies.get();
+            Game game = new Game(size, random.nextLong());
+            for (int i = from; i < to; i++) {
+                game.start(random.nextLong());
+                int moves = 0;
+                Direction direction;
+                while ((direction = policy.choose(game.getBoard(), random)) != null && game.move(direction)) {
+                    moves++;
+                }
+                report.record(game.getScore(), moves, game.getMaxExponent());
+            }
+            return report;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.sim;
+
+import com.example.demo.engine.Bitboard;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Statistics collected over a batch of simulated games.
+ * <p>
+ * Each worker fills its own report and the reports are merged at the end,
+ * so recording needs no synchronisation.
+ */
+public class SimulationReport {
+
+    private static final int EXPONENTS = Bitboard.MAX_EXPONENT + 1;
+    private static final double[] PERCENTILES = {0.10, 0.25, 0.50, 0.75, 0.90, 0.99};
+
+    private long[] scores = new long[64];
+    private final long[] maxTileCounts = new long[EXPONENTS];
+    private int games;
+    private long moves;
+    private long elapsedNanos;
+
+    /**
+     * Records the result of one finished game.
+     *
+     * @param score       final score
+     * @param moveCount   number of moves played
+     * @param maxExponent exponent of the largest tile on the final board
+     */
+    public void record(long score, int moveCount, int maxExponent) {
+        if (games == scores.length) {
+            scores = Arrays.copyOf(scores, games * 2);
+        }
+        scores[games++] = score;
+        moves += moveCount;
+        maxTileCounts[maxExponent]++;
+    }
+
+    /**
+     * Adds all games recorded in another report to this one.
+     *
+     * @param other the report to merge
+     * @return this report
+     */
+    public SimulationReport merge(SimulationReport other) {
+        if (games + other.games > scores.length) {
+            scores = Arrays.copyOf(scores, Math.max(scores.length * 2, games + other.games));
+        }
+        System.arraycopy(other.scores, 0, scores, games, other.games);
+        games += other.games;
+        moves += other.moves;
+        for (int e = 0; e < EXPONENTS; e++) {
+            maxTileCounts[e] += other.maxTileCounts[e];
+        }
+        return this;
+    }
+
+    /**
+     * Sets the wall-clock time the batch took, used for throughput figures.
+     *
+     * @param elapsedNanos elapsed time in nanoseconds
+     */
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return number of games recorded
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @return total number of moves over all games
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return the mean final score, 0 if no games were recorded
+     */
+    public double getMeanScore() {
+        if (games == 0) return 0;
+        long total = 0;
+        for (int i = 0; i < games; i++) {
+            total += scores[i];
+        }
+        return (double) total / games;
+    }
+
+    /**
+     * Returns the fraction of games whose largest tile was at least the given one.
+     *
+     * @param exponent tile exponent (11 for 2048)
+     * @return fraction of games that reached the tile
+     */
+    public double reachRate(int exponent) {
+        if (games == 0) return 0;
+        long reached = 0;
+        for (int e = exponent; e < EXPONENTS; e++) {
+            reached += maxTileCounts[e];
+        }
+        return (double) reached / games;
+    }
+
+    /**
+     * Prints throughput, score distribution, max-tile distribution and
+     * tile-reach frequencies.
+     *
+     * @param out the stream to print to
+     */
+    public void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("Games: %d, moves: %d, time: %.2f s%n", games, moves, seconds);
+        if (games == 0) return;
+        out.printf("Throughput: %.1f games/s, %.0f moves/s%n", games / seconds, moves / seconds);
+        out.printf("Moves per game: %.1f%n", (double) moves / games);
+
+        long[] sorted = Arrays.copyOf(scores, games);
+        Arrays.sort(sorted);
+        out.printf("%nScore: mean %.1f, min %d, max %d%n", getMeanScore(), sorted[0], sorted[games - 1]);
+        for (double p : PERCENTILES) {
+            int index = (int) Math.min(games - 1, Math.floor(p * games));
+            out.printf("  p%-3d %d%n", Math.round(p * 100), sorted[index]);
+        }
+
+        out.printf("%n%8s %10s %8s %10s%n", "Tile", "Max tile", "%", "Reached %");
+        for (int e = 1; e < EXPONENTS; e++) {
+            if (reachRate(e) == 0) break;
+            out.printf("%8d %10d %7.2f%% %9.2f%%%n", Bitboard.tileValue(e), maxTileCounts[e],
+                    100.0 * maxTileCounts[e] / games, 100 * reachRate(e));
+        }
+    }
+}
@@ -129,12 +129,21 @@ public class Cell {
      * Updates the text color based on the tile value for better contrast.
      */
     private void updateTextColor() {
-        int number = getNumber();
+        textNode.setFill(getTextColorForNumber(getNumber()));
+    }
+
+    /**
+     * Returns the color of the number on a tile, chosen for contrast with
+     * the tile color.
+     *
+     * @param number the tile number
+     * @return the text color
+     */
+    public static Color getTextColorForNumber(int number) {
         if (number <= 4) {
-            textNode.setFill(Color.rgb(119, 110, 101)); // Dark gray for light tiles
-        } else {
-            textNode.setFill(Color.rgb(249, 246, 242)); // Light color for dark tiles
+            return Color.rgb(119, 110, 101); // Dark gray for light tiles
         }
+        return Color.rgb(249, 246, 242); // Light color for dark tiles
     }
 
     /**
@@ -182,6 +191,28 @@ public class Cell {
         updateVisuals();
     }
 
+    /**
+     * Displays the given value in this cell, re-centering the text and
+     * attaching or detaching the text node as needed.
+     * Used when the board is rendered from the game engine state.
+     *
+     * @param value the tile value to show, 0 for an empty cell
+     */
+    public void render(int value) {
+        if (value == getNumber() && (value == 0 || textNode.getParent() == root)) {
+            return;
+        }
+        textNode.setText(String.valueOf(value));
+        centerText();
+        updateColor();
+        updateTextColor();
+        if (value == 0) {
+            root.getChildren().remove(textNode);
+        } else if (textNode.getParent() != root) {
+            root.getChildren().add(textNode);
+        }
+    }
+
     /**
      * Sets the cell's number without updating visuals (for undo functionality).
      *
@@ -246,7 +277,7 @@ public class Cell {
      * @param number the tile number
      * @return the corresponding color
      */
-    private Color getColorForNumber(int number) {
+    public static Color getColorForNumber(int number) {
         return switch (number) {
             case 0 -> Color.rgb(238, 228, 218, 0.8); // Empty cell - visible light beige
             case 2 -> Color.rgb(255, 182, 193);        // Light pink
@@ -13,4 +13,8 @@ module com.example.demo {
     opens com.example.demo.ui to javafx.fxml;
     exports com.example.demo.data;
     opens com.example.demo.data to javafx.fxml;
+    exports com.example.demo.engine;
+    exports com.example.demo.ai;
+    exports com.example.demo.sim;
+    exports com.example.demo.replay;
 }
\ No newline at end of file